@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.util.PrimitiveIterator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Page ordering: construction, boxed iteration and unboxed iteration.
+ *
+ * @author Erik Ogan
+ *
+ */
+@State(Scope.Benchmark)
+public class BookletPageNumberCollectionBenchmark {
+	@Param({ "8", "800", "8000" })
+	private int pageCount;
+
+	private BookletPageNumberCollection collection;
+
+	@Setup
+	public void setup() {
+		collection = new BookletPageNumberCollection(pageCount);
+	}
+
+	@Benchmark
+	public BookletPageNumberCollection construct() {
+		return new BookletPageNumberCollection(pageCount);
+	}
+
+	@Benchmark
+	public void iterateBoxed(Blackhole blackhole) {
+		for (Integer page : collection) {
+			blackhole.consume(page);
+		}
+	}
+
+	@Benchmark
+	public void iteratePrimitive(Blackhole blackhole) {
+		for (PrimitiveIterator.OfInt it = collection.iterator(); it.hasNext();) {
+			blackhole.consume(it.nextInt());
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+
+/**
+ * Copying a single source page as a Form XObject, as <code>getCopiedPage</code> does.
+ *
+ * @author Erik Ogan
+ *
+ */
+@State(Scope.Benchmark)
+public class CopyPageBenchmark {
+	@Param({ "8", "800", "8000" })
+	private int pageCount;
+
+	private byte[]			pdf;
+	private PdfDocument	in;
+	private PdfDocument	out;
+	private int					next;
+
+	@Setup(Level.Trial)
+	public void createSource() throws IOException {
+		pdf = SyntheticDocuments.create(pageCount);
+	}
+
+	@Setup(Level.Iteration)
+	public void open() throws IOException {
+		in = new PdfDocument(SyntheticDocuments.reader(pdf));
+		out = new PdfDocument(new PdfWriter(OutputStream.nullOutputStream()));
+		out.addNewPage();
+		next = 0;
+	}
+
+	@TearDown(Level.Iteration)
+	public void close() {
+		in.close();
+		out.close();
+	}
+
+	@Benchmark
+	public PdfFormXObject copyAsFormXObject() throws IOException {
+		int page = next++ % pageCount + 1;
+		return in.getPage(page).copyAsFormXObject(out);
+	}
+}
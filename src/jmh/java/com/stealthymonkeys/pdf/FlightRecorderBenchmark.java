@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * The cost of the JDK Flight Recorder events in {@link AbstractImpositionStrategy#impose()}: with no recording, with a
+ * recording that leaves them disabled, and with the <code>jfr/bookletbuilder.jfc</code> profile enabling them.
+ *
+ * @author Erik Ogan
+ *
+ */
+@State(Scope.Benchmark)
+public class FlightRecorderBenchmark {
+	@Param({ "800" })
+	private int pageCount;
+
+	@Param({ "none", "default", "bookletbuilder" })
+	private String recording;
+
+	private byte[]		pdf;
+	private Recording	active;
+
+	@Setup
+	public void setup() throws IOException, ParseException {
+		pdf = SyntheticDocuments.create(pageCount);
+
+		if ("default".equals(recording)) {
+			active = new Recording(Configuration.getConfiguration("default"));
+		} else if ("bookletbuilder".equals(recording)) {
+			InputStream stream = getClass().getClassLoader().getResourceAsStream("jfr/bookletbuilder.jfc");
+			try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+				active = new Recording(Configuration.create(reader));
+			}
+		}
+
+		if (active != null) {
+			active.setToDisk(false);
+			active.start();
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (active != null) {
+			active.stop();
+			active.close();
+		}
+	}
+
+	@Benchmark
+	public void impose() throws IOException {
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(SyntheticDocuments.reader(pdf),
+		    new PdfWriter(OutputStream.nullOutputStream()));
+		strategy.disableInstructions();
+		strategy.impose();
+	}
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * End-to-end imposition of a synthetic document, in memory.
+ *
+ * @author Erik Ogan
+ *
+ */
+@State(Scope.Benchmark)
+public class FourUpBookletStrategyBenchmark {
+	@Param({ "8", "800", "8000" })
+	private int pageCount;
+
+	@Param({ "false", "true" })
+	private boolean streaming;
+
+	private byte[] pdf;
+
+	@Setup
+	public void setup() throws IOException {
+		pdf = SyntheticDocuments.create(pageCount);
+	}
+
+	@Benchmark
+	public void impose() throws IOException {
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(SyntheticDocuments.reader(pdf),
+		    new PdfWriter(OutputStream.nullOutputStream()));
+		strategy.disableInstructions();
+		if (streaming)
+			strategy.enableStreaming();
+		strategy.impose();
+	}
+}
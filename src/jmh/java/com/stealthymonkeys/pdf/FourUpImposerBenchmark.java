@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Point;
+
+/**
+ * The per-output-page work of the imposer: fetching the transform and iterating the positions.
+ *
+ * @author Erik Ogan
+ *
+ */
+@State(Scope.Benchmark)
+public class FourUpImposerBenchmark {
+	private NupImposer imposer = new FourUpImposer(PageSize.LETTER);
+
+	@Benchmark
+	public void iterate(Blackhole blackhole) {
+		for (Point location : imposer) {
+			blackhole.consume(location);
+		}
+	}
+
+	@Benchmark
+	public void transformAndIterate(Blackhole blackhole) {
+		blackhole.consume(imposer.getTransformMatrix());
+		for (Point location : imposer) {
+			blackhole.consume(location);
+		}
+	}
+}
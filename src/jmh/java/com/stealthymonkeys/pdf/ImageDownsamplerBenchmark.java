@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * Imposition of image-heavy pages, with and without downsampling. The size of the last booklet written is printed at
+ * the end of each trial, to compare against the time taken.
+ *
+ * @author Erik Ogan
+ *
+ */
+@State(Scope.Benchmark)
+public class ImageDownsamplerBenchmark {
+	@Param({ "0", "150", "300" })
+	private int dpi;
+
+	private byte[]	pdf;
+	private int			outputSize;
+
+	@Setup
+	public void setup() throws IOException {
+		pdf = SyntheticDocuments.createScanned(16, 1600);
+	}
+
+	@Benchmark
+	public void impose() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(SyntheticDocuments.reader(pdf), new PdfWriter(bytes));
+		strategy.disableInstructions();
+		if (dpi > 0)
+			strategy.setImageDownsampler(new ImageDownsampler(dpi));
+		strategy.impose();
+		outputSize = bytes.size();
+	}
+
+	@TearDown
+	public void reportSize() {
+		System.out.println("Input: " + pdf.length + " bytes, output at " + (dpi > 0 ? dpi + " DPI" : "full resolution")
+		    + ": " + outputSize + " bytes");
+	}
+}
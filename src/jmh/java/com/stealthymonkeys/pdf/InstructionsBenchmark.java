@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * Including instruction pages in an output document: reading the classpath resource for every job, against the
+ * process-wide {@link InstructionCache}.
+ *
+ * @author Erik Ogan
+ *
+ */
+@State(Scope.Thread)
+public class InstructionsBenchmark {
+	private static final String NAME = "benchmark";
+
+	private Path				directory;
+	private ClassLoader	originalLoader;
+	private PdfDocument	out;
+
+	@Setup(Level.Trial)
+	public void createResource() throws IOException {
+		directory = Files.createTempDirectory("instructions-");
+		Path instructions = Files.createDirectory(directory.resolve("instructions"));
+		Files.write(instructions.resolve(NAME + ".pdf"), SyntheticDocuments.create(2));
+
+		originalLoader = Thread.currentThread().getContextClassLoader();
+		URL[] urls = { directory.toUri().toURL() };
+		Thread.currentThread().setContextClassLoader(new URLClassLoader(urls, originalLoader));
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteResource() throws IOException {
+		Thread.currentThread().setContextClassLoader(originalLoader);
+		Files.delete(directory.resolve("instructions").resolve(NAME + ".pdf"));
+		Files.delete(directory.resolve("instructions"));
+		Files.delete(directory);
+	}
+
+	@Setup(Level.Iteration)
+	public void open() {
+		out = new PdfDocument(new PdfWriter(OutputStream.nullOutputStream()));
+	}
+
+	@TearDown(Level.Iteration)
+	public void close() {
+		out.close();
+	}
+
+	@Benchmark
+	public void fromClasspath() throws IOException {
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		InputStream stream = loader.getResourceAsStream("instructions/" + NAME + ".pdf");
+		copy(new PdfDocument(new PdfReader(stream)));
+	}
+
+	@Benchmark
+	public void fromCache() throws IOException {
+		copy(InstructionCache.open(NAME));
+	}
+
+	private void copy(PdfDocument instructions) {
+		instructions.copyPagesTo(1, instructions.getNumberOfPages(), out);
+		instructions.close();
+	}
+}
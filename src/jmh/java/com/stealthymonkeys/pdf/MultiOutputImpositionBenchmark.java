@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * A duplex booklet, its fronts and its backs, imposed by one {@link MultiOutputImposition} against three separate runs,
+ * each parsing the source again.
+ *
+ * @author Erik Ogan
+ *
+ */
+@State(Scope.Benchmark)
+public class MultiOutputImpositionBenchmark {
+	private static final SheetSides[] OUTPUTS = { SheetSides.BOTH, SheetSides.FRONTS, SheetSides.BACKS };
+
+	@Param({ "synthetic", "scanned" })
+	private String corpus;
+
+	private File inFile;
+
+	@Setup
+	public void setup() throws IOException {
+		inFile = File.createTempFile("benchmark-", ".pdf");
+		Files.write(inFile.toPath(),
+		    corpus.equals("scanned") ? SyntheticDocuments.createScanned(16, 800) : SyntheticDocuments.create(800));
+	}
+
+	@TearDown
+	public void tearDown() {
+		inFile.delete();
+	}
+
+	private static FourUpBookletStrategy createStrategy(PdfDocument source, SheetSides sides) {
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(source,
+		    new PdfDocument(new PdfWriter(OutputStream.nullOutputStream())));
+		strategy.disableInstructions();
+		strategy.setSheetSides(sides);
+		return strategy;
+	}
+
+	@Benchmark
+	public void separateRuns() throws IOException {
+		for (SheetSides sides : OUTPUTS) {
+			createStrategy(new PdfDocument(new PdfReader(inFile)), sides).impose();
+		}
+	}
+
+	@Benchmark
+	public void multiOutput() throws IOException {
+		PdfDocument source = new PdfDocument(new PdfReader(inFile));
+		MultiOutputImposition job = new MultiOutputImposition(source);
+
+		for (SheetSides sides : OUTPUTS) {
+			job.add(createStrategy(source, sides));
+		}
+		job.impose();
+	}
+}
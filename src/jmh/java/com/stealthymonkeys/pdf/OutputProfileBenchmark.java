@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Imposition under each output profile, of both incompressible and scan-like documents. The size of the last booklet
+ * written is printed at the end of each trial.
+ *
+ * @author Erik Ogan
+ *
+ */
+@State(Scope.Benchmark)
+public class OutputProfileBenchmark {
+	@Param({ "FAST", "BALANCED", "SMALLEST" })
+	private OutputProfile profile;
+
+	@Param({ "synthetic", "scanned" })
+	private String corpus;
+
+	private byte[]	pdf;
+	private int			outputSize;
+
+	@Setup
+	public void setup() throws IOException {
+		pdf = corpus.equals("scanned") ? SyntheticDocuments.createScanned(16, 800) : SyntheticDocuments.create(800);
+	}
+
+	@Benchmark
+	public void impose() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(SyntheticDocuments.reader(pdf), profile.open(bytes));
+		strategy.disableInstructions();
+		strategy.impose();
+		outputSize = bytes.size();
+	}
+
+	@TearDown
+	public void reportSize() {
+		System.out.println(corpus + " input: " + pdf.length + " bytes, " + profile + " output: " + outputSize + " bytes");
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Speedup of {@link ParallelImposition} against the number of worker threads. A thread count of 1 is the baseline.
+ *
+ * @author Erik Ogan
+ *
+ */
+@State(Scope.Benchmark)
+public class ParallelImpositionBenchmark {
+	@Param({ "800", "8000" })
+	private int pageCount;
+
+	@Param({ "1", "2", "4", "8" })
+	private int threads;
+
+	private File	inFile;
+	private File	outFile;
+
+	@Setup
+	public void setup() throws IOException {
+		inFile = SyntheticDocuments.createFile(pageCount);
+		outFile = File.createTempFile("benchmark-", "-booklet.pdf");
+	}
+
+	@TearDown
+	public void tearDown() {
+		inFile.delete();
+		outFile.delete();
+	}
+
+	@Benchmark
+	public void impose() throws IOException {
+		ParallelImposition imposition = new ParallelImposition(inFile, outFile, FourUpBookletStrategy::new);
+		imposition.disableInstructions();
+		imposition.setThreads(threads);
+		imposition.impose();
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * Imposition of a document whose pages share one resource dictionary, with and without resource pruning. The size of
+ * the last booklet written is printed at the end of each trial.
+ *
+ * @author Erik Ogan
+ *
+ */
+@State(Scope.Benchmark)
+public class ResourcePruningBenchmark {
+	@Param({ "64", "256" })
+	private int pageCount;
+
+	@Param({ "false", "true" })
+	private boolean streaming;
+
+	@Param({ "false", "true" })
+	private boolean prune;
+
+	private byte[]	pdf;
+	private int			outputSize;
+
+	@Setup
+	public void setup() throws IOException {
+		pdf = SyntheticDocuments.createSharedResources(pageCount);
+	}
+
+	@Benchmark
+	public void impose() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(SyntheticDocuments.reader(pdf), new PdfWriter(bytes));
+		strategy.disableInstructions();
+		if (streaming)
+			strategy.enableStreaming();
+		if (prune)
+			strategy.enableResourcePruning();
+		strategy.impose();
+		outputSize = bytes.size();
+	}
+
+	@TearDown
+	public void reportSize() {
+		System.out.println("Input: " + pdf.length + " bytes, output" + (prune ? " with" : " without") + " pruning: "
+		    + outputSize + " bytes");
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfResources;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+
+/**
+ * Generates synthetic source PDFs for the benchmarks. Every page carries its own small image and a rectangle whose
+ * position encodes the page number.
+ *
+ * @author Erik Ogan
+ *
+ */
+class SyntheticDocuments {
+	static final int IMAGE_SIZE = 64;
+
+	static byte[] create(int pageCount) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		PdfDocument doc = new PdfDocument(new PdfWriter(bytes));
+		Random random = new Random(pageCount);
+
+		for (int i = 1; i <= pageCount; i++) {
+			PdfPage page = doc.addNewPage(PageSize.LETTER);
+			PdfCanvas canvas = new PdfCanvas(page);
+
+			canvas.addXObjectWithTransformationMatrix(createImage(random), 144, 0, 0, 144, 72, 72);
+			canvas.rectangle(i % 500, i / 500, 10, 10).fill();
+			canvas.release();
+			page.flush(true);
+		}
+
+		doc.close();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Creates a document whose pages are each covered by a single, high-resolution image, like a scan. The images are
+	 * smooth gradients, so they compress in roughly the way photographs do.
+	 */
+	static byte[] createScanned(int pageCount, int imageSize) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		PdfDocument doc = new PdfDocument(new PdfWriter(bytes));
+		PageSize size = PageSize.LETTER;
+
+		for (int i = 1; i <= pageCount; i++) {
+			PdfPage page = doc.addNewPage(size);
+			PdfCanvas canvas = new PdfCanvas(page);
+
+			canvas.addXObjectWithTransformationMatrix(createGradient(imageSize, i), size.getWidth(), 0, 0, size.getHeight(),
+			    0, 0);
+			canvas.release();
+			page.flush(true);
+		}
+
+		doc.close();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Creates a document whose pages all share one resource dictionary holding every page's image, as exported by some
+	 * layout programs. Each page only draws its own image.
+	 */
+	static byte[] createSharedResources(int pageCount) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		writeSharedResources(new PdfDocument(new PdfWriter(bytes)), pageCount);
+		return bytes.toByteArray();
+	}
+
+	static File createFile(int pageCount) throws IOException {
+		File file = File.createTempFile("synthetic-", ".pdf");
+		file.deleteOnExit();
+		Files.write(file.toPath(), create(pageCount));
+		return file;
+	}
+
+	static PdfReader reader(byte[] pdf) throws IOException {
+		return new PdfReader(new ByteArrayInputStream(pdf));
+	}
+
+	private static void writeSharedResources(PdfDocument doc, int pageCount) {
+		Random random = new Random(pageCount);
+		PdfResources resources = new PdfResources();
+		resources.makeIndirect(doc);
+
+		for (int i = 1; i <= pageCount; i++) {
+			PdfPage page = doc.addNewPage(PageSize.LETTER);
+			page.getPdfObject().put(PdfName.Resources, resources.getPdfObject());
+			PdfCanvas canvas = new PdfCanvas(page.newContentStreamAfter(), resources, doc);
+
+			canvas.addXObjectWithTransformationMatrix(createImage(random), 144, 0, 0, 144, 72, 72);
+			canvas.release();
+		}
+
+		// Pages can't be flushed early, since the shared resources keep growing
+		doc.close();
+	}
+
+	private static PdfImageXObject createImage(Random random) {
+		byte[] pixels = new byte[IMAGE_SIZE * IMAGE_SIZE * 3];
+		random.nextBytes(pixels);
+
+		return createImage(pixels, IMAGE_SIZE);
+	}
+
+	private static PdfImageXObject createGradient(int imageSize, int seed) {
+		byte[] pixels = new byte[imageSize * imageSize * 3];
+
+		for (int y = 0, i = 0; y < imageSize; y++) {
+			for (int x = 0; x < imageSize; x++) {
+				pixels[i++] = (byte) (x * 256 / imageSize);
+				pixels[i++] = (byte) (y * 256 / imageSize);
+				pixels[i++] = (byte) (seed * 16 + (x ^ y) % 16);
+			}
+		}
+
+		return createImage(pixels, imageSize);
+	}
+
+	private static PdfImageXObject createImage(byte[] pixels, int imageSize) {
+		PdfStream stream = new PdfStream(pixels);
+		stream.put(PdfName.Type, PdfName.XObject);
+		stream.put(PdfName.Subtype, PdfName.Image);
+		stream.put(PdfName.Width, new PdfNumber(imageSize));
+		stream.put(PdfName.Height, new PdfNumber(imageSize));
+		stream.put(PdfName.ColorSpace, PdfName.DeviceRGB);
+		stream.put(PdfName.BitsPerComponent, new PdfNumber(8));
+
+		return new PdfImageXObject(stream);
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Point;
+
+/**
+ * The per-output-page work of the table-driven imposer, by index, against iterating its positions as
+ * {@link FourUpImposerBenchmark} does. Run with <code>-prof gc</code> to compare allocation rates.
+ *
+ * @author Erik Ogan
+ *
+ */
+@State(Scope.Benchmark)
+public class TableImposerBenchmark {
+	@Param({ "2", "4", "8", "16" })
+	private int slots;
+
+	private NupImposer imposer;
+
+	@Setup
+	public void setup() {
+		imposer = TableImposer.forSlots(PageSize.LETTER, slots);
+	}
+
+	@Benchmark
+	public void indexed(Blackhole blackhole) {
+		int count = imposer.getSlotCount();
+		for (int i = 0; i < count; i++) {
+			blackhole.consume(imposer.getX(i));
+			blackhole.consume(imposer.getY(i));
+			blackhole.consume(imposer.getRotation(i));
+		}
+	}
+
+	@Benchmark
+	public void iterate(Blackhole blackhole) {
+		for (Point location : imposer) {
+			blackhole.consume(location);
+		}
+	}
+}
@@ -15,11 +15,23 @@ package com.stealthymonkeys.pdf;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
 
 import com.itextpdf.kernel.geom.PageSize;
 import com.itextpdf.kernel.geom.Point;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PageFlushingHelper;
+import com.itextpdf.kernel.pdf.PdfArray;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfPage;
 import com.itextpdf.kernel.pdf.PdfReader;
@@ -32,11 +44,22 @@ import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
  *
  */
 public abstract class AbstractImpositionStrategy {
+	// Runs each asynchronous imposition on its own virtual thread
+	private static final Executor VIRTUAL_THREADS = task -> Thread.ofVirtual().name("booklet-imposition").start(task);
+
 	/**
-	 * The original, input PDF document
+	 * The original, input PDF document. When there are several, this is the first.
 	 */
 	protected PdfDocument in = null;
 
+	/**
+	 * Every input PDF document, in order. Their pages are imposed as one sequence.
+	 */
+	protected List<PdfDocument> sources = null;
+
+	// sourceOffsets[i] is the number of pages in the sources before sources[i]
+	private int[] sourceOffsets;
+
 	/**
 	 * The imposed, output PDF document
 	 */
@@ -44,6 +67,29 @@ public abstract class AbstractImpositionStrategy {
 
 	private boolean includeInstructions = true;
 
+	private boolean streaming = false;
+
+	private ImpositionListener listener = ImpositionListener.NONE;
+
+	private boolean pruneResources = false;
+
+	private ImageDownsampler imageDownsampler = null;
+
+	private StreamDeduplicator streamDeduplicator = null;
+
+	private StreamRecompressor streamRecompressor = null;
+
+	private int					copiesPerSheet	= 1;
+	private SheetSides	sheetSides			= SheetSides.BOTH;
+	private boolean			sharedSources		= false;
+
+	private double[] imposedMatrix = null;
+
+	private volatile Future<Void> cancellation = null;
+
+	private int	firstOutputPage	= 1;
+	private int	lastOutputPage	= Integer.MAX_VALUE;
+
 	/**
 	 * Create a strategy that will read pages from the PDF file <code>inFile</code>, and write a new PDF booklet to
 	 * <code>outFile</code>
@@ -101,8 +147,34 @@ public abstract class AbstractImpositionStrategy {
 	 *          Writable PdfDocument to which to write imposed pages.
 	 */
 	public AbstractImpositionStrategy(PdfDocument in, PdfDocument out) {
-		this.in = in;
+		this(Collections.singletonList(in), out);
+	}
+
+	/**
+	 * Create a strategy that will read pages from each PDF document in <code>in</code>, in order, as though they were a
+	 * single document, and write a new PDF booklet to <code>out</code>
+	 *
+	 * @param in
+	 *          Readable PdfDocuments from which to read pages to impose. There must be at least one.
+	 * @param out
+	 *          Writable PdfDocument to which to write imposed pages.
+	 */
+	public AbstractImpositionStrategy(List<PdfDocument> in, PdfDocument out) {
+		if (in.isEmpty())
+			throw new IllegalArgumentException("At least one source document is required");
+
+		this.sources = Collections.unmodifiableList(new ArrayList<>(in));
+		this.in = sources.get(0);
 		this.out = out;
+
+		sourceOffsets = new int[sources.size() + 1];
+		for (int i = 0; i < sources.size(); i++) {
+			sourceOffsets[i + 1] = sourceOffsets[i] + sources.get(i).getNumberOfPages();
+		}
+
+		// A writer opened by an output profile already has its object streams; apply the rest of the profile here
+		if (out.getWriter() instanceof OutputProfile.ProfiledWriter)
+			applyOutputProfile(((OutputProfile.ProfiledWriter) out.getWriter()).getProfile());
 	}
 
 	/**
@@ -112,43 +184,440 @@ public abstract class AbstractImpositionStrategy {
 		includeInstructions = false;
 	}
 
+	/**
+	 * Enable streaming imposition. Each output page is flushed to the <code>PdfWriter</code> as soon as all of its
+	 * positions are filled, and the source pages imposed on it are released.
+	 *
+	 * <p>
+	 * This keeps memory use flat regardless of page count, at the cost of writing resources shared between source pages
+	 * (fonts, images, etc.) once per output page rather than once per document.
+	 * </p>
+	 *
+	 * <p>
+	 * The same holds for a source page placed on more than one output page: its copy is flushed with the first, so each
+	 * later output page copies and writes it again. Repeats within one output page still share a single copy.
+	 * </p>
+	 */
+	public void enableStreaming() {
+		streaming = true;
+	}
+
+	/**
+	 * Set a listener to receive per-phase timings and progress during {@link #impose()}.
+	 *
+	 * @param listener
+	 *          The listener, or <code>null</code> for none.
+	 */
+	public void setImpositionListener(ImpositionListener listener) {
+		this.listener = listener == null ? ImpositionListener.NONE : listener;
+	}
+
+	/**
+	 * Copy each source page with only the resources its content stream uses, rather than its whole resource dictionary.
+	 * This shrinks the output considerably for documents that share one large resource dictionary across all their
+	 * pages, particularly in streaming mode, where nothing copied is shared between output pages. The cost is a scan of
+	 * each page's content stream.
+	 */
+	public void enableResourcePruning() {
+		pruneResources = true;
+	}
+
+	/**
+	 * Set a downsampler to reduce the resolution of images in each source page as it is copied, to what the imposed page
+	 * will actually print at.
+	 *
+	 * @param downsampler
+	 *          The downsampler, or <code>null</code> to copy images untouched.
+	 */
+	public void setImageDownsampler(ImageDownsampler downsampler) {
+		imageDownsampler = downsampler;
+	}
+
+	/**
+	 * Set a deduplicator to merge identical streams (fonts, images, etc.) as source pages are copied into the output.
+	 *
+	 * @param deduplicator
+	 *          A deduplicator for this strategy's output document, or <code>null</code> to copy streams untouched.
+	 */
+	public void setStreamDeduplicator(StreamDeduplicator deduplicator) {
+		streamDeduplicator = deduplicator;
+	}
+
+	/**
+	 * Apply an output profile's deflate level to the output writer, and recompress copied streams if the profile calls
+	 * for it. Object streams can only be enabled when the writer is created, by {@link OutputProfile#open(File)}. A
+	 * strategy writing to such a writer has already applied its profile, so this is only needed for other writers, or
+	 * to change profile.
+	 *
+	 * @param profile
+	 *          The output profile
+	 */
+	public void setOutputProfile(OutputProfile profile) {
+		applyOutputProfile(profile);
+	}
+
+	// Private, so the constructor can apply a profile without calling an overridable method
+	private void applyOutputProfile(OutputProfile profile) {
+		out.getWriter().setCompressionLevel(profile.getCompressionLevel());
+		streamRecompressor = profile.isRecompressing() ? new StreamRecompressor(out, profile.getCompressionLevel())
+		    : null;
+	}
+
+	/**
+	 * Print several identical copies on each sheet: every output page is divided into <code>copies</code> equal groups
+	 * of positions, each carrying the same source pages. The page order for a single copy comes from
+	 * {@link #getPageNumberIterable()}, which must lay out <code>slots / copies</code> pages to a side.
+	 *
+	 * @param copies
+	 *          The number of copies per sheet, which must evenly divide the number of positions on an output page.
+	 */
+	public void setCopiesPerSheet(int copies) {
+		if (copies < 1 || getSlotsPerPage() % copies != 0)
+			throw new IllegalArgumentException(
+			    "Cannot print " + copies + " copies on a sheet of " + getSlotsPerPage() + " pages");
+
+		copiesPerSheet = copies;
+	}
+
+	/**
+	 * Returns the number of copies printed on each sheet.
+	 *
+	 * @return The number of copies set by {@link #setCopiesPerSheet(int)}, or 1.
+	 */
+	protected int getCopiesPerSheet() {
+		return copiesPerSheet;
+	}
+
+	/**
+	 * Restrict the imposition to a contiguous range of output pages. Instruction pages are not counted in this range,
+	 * and are controlled separately by {@link #disableInstructions()}.
+	 *
+	 * @param first
+	 *          The first output page to impose (1-based, inclusive)
+	 * @param last
+	 *          The last output page to impose (1-based, inclusive)
+	 */
+	public void selectOutputPages(int first, int last) {
+		if (first < 1 || last < first)
+			throw new IllegalArgumentException("Invalid output page range: " + first + "-" + last);
+
+		firstOutputPage = first;
+		lastOutputPage = last;
+	}
+
+	/**
+	 * Impose only the fronts or only the backs of the sheets, e.g. for printers without duplex. The source pages on the
+	 * other sides are not read.
+	 *
+	 * @param sides
+	 *          The sides to impose.
+	 */
+	public void setSheetSides(SheetSides sides) {
+		sheetSides = sides;
+	}
+
+	/**
+	 * Leave the source documents open once imposed, and their pages parsed even when streaming, so that another strategy
+	 * can impose from them without parsing them again. Used by {@link MultiOutputImposition}, which closes the sources
+	 * itself.
+	 */
+	void shareSources() {
+		sharedSources = true;
+	}
+
+	/**
+	 * Restrict the imposition to a contiguous range of printed sheets, each of which is two output pages: its front and
+	 * its back. Only the source pages those sheets carry are read and copied, so re-imposing a few sheets of a long job
+	 * costs no more than a short one. As with {@link #selectOutputPages(int, int)}, instruction pages are not counted.
+	 *
+	 * @param first
+	 *          The first sheet to impose (1-based, inclusive)
+	 * @param last
+	 *          The last sheet to impose (1-based, inclusive)
+	 */
+	public void selectSheets(int first, int last) {
+		if (first < 1 || last < first)
+			throw new IllegalArgumentException("Invalid sheet range: " + first + "-" + last);
+
+		selectOutputPages(first * 2 - 1, last * 2);
+	}
+
+	/**
+	 * Returns the number of imposed pages a full imposition would produce, not counting instruction pages.
+	 *
+	 * @return The number of imposed output pages.
+	 */
+	public int getOutputPageCount() {
+		int slots = getSlotsPerPage();
+		return (getLayoutSequence().size() + slots - 1) / slots;
+	}
+
+	/**
+	 * Returns the number of output pages in each signature, if the page order divides the document into signatures that
+	 * are ordered independently. Each signature can then be imposed as a unit of its own, e.g. by
+	 * {@link ParallelImposition}.
+	 *
+	 * @return The number of output pages per signature, or 0 if the whole document is a single unit.
+	 */
+	public int getOutputPagesPerSignature() {
+		return 0;
+	}
+
+	/**
+	 * Works out what a full imposition would produce, without copying any page content: only the source document's page
+	 * tree (and the instructions' page count) is read.
+	 *
+	 * @return The imposition plan.
+	 * @throws IOException
+	 *           if the instructions cannot be read.
+	 */
+	public ImpositionPlan getPlan() throws IOException {
+		PageNumberSequence pageNumbers = getPageNumberSequence();
+		int blanks = 0;
+		for (int i = 0; i < pageNumbers.size(); i++) {
+			if (pageNumbers.pageAt(i) <= 0)
+				blanks++;
+		}
+
+		int sourcePages = getSourcePageCount();
+		Rectangle firstPageSize = getSourcePage(1).getPageSize();
+		boolean uniform = true;
+		for (int i = 2; uniform && i <= sourcePages; i++) {
+			Rectangle pageSize = getSourcePage(i).getPageSize();
+			uniform = pageSize.getWidth() == firstPageSize.getWidth() && pageSize.getHeight() == firstPageSize.getHeight();
+		}
+
+		int instructionPages = 0;
+		PdfDocument instructions = includeInstructions ? getInstructions() : null;
+		if (instructions != null) {
+			try {
+				instructionPages = instructions.getNumberOfPages();
+			} finally {
+				instructions.close();
+			}
+		}
+
+		return new ImpositionPlan(getClass().getSimpleName(), sourcePages, blanks, getSlotsPerPage(),
+		    getOutputPageCount(), instructionPages, firstPageSize, uniform, getNupImposer().getImposedPageSize());
+	}
+
 	/**
 	 * Performs the imposition, copying pages from the source (resizing and rotating as necessary) and positioning them on
-	 * the destination pages.
+	 * the destination pages. The source and destination documents are closed when it finishes, whether or not it
+	 * succeeds; after a failure the destination holds only the pages completed so far.
 	 *
 	 * @throws IOException
 	 *           if PDF pages cannot be copied from the source to destination documents.
 	 */
 	public void impose() throws IOException {
-		Iterator<Integer> pageNumberIterator = getPageNumberIterable().iterator();
+		try {
+			imposePages();
+		} catch (IOException | RuntimeException | Error e) {
+			closeQuietly();
+			throw e;
+		}
+	}
+
+	private void imposePages() throws IOException {
+		PageNumberSequence pageNumbers = getLayoutSequence();
 		NupImposer imposer = getNupImposer();
+		// Read once per imposition, rather than once per page
+		imposedMatrix = null;
 
 		PageSize imposedPageSize = new PageSize(imposer.getImposedPageSize());
 
-		includeInstructions(imposedPageSize);
+		int slots = getSlotsPerPage();
+		int lastPage = Math.min(lastOutputPage, (pageNumbers.size() + slots - 1) / slots);
+
+		ImpositionJobEvent jobEvent = new ImpositionJobEvent();
+		jobEvent.begin();
+
+		listener.impositionStarted();
+		long time = startTiming();
+		int instructionPages = includeInstructions(imposedPageSize);
+		lap(ImpositionPhase.INSTRUCTIONS, time);
+
+		// Each source page is copied once, and its Form XObject placed wherever the page repeats
+		Map<Integer, PdfFormXObject> copiedPages = new HashMap<>();
+		int outputPages = 0;
+		int signaturePages = getOutputPagesPerSignature();
+
+		for (int outputPage = firstOutputPage; outputPage <= lastPage; outputPage++) {
+			checkCancelled();
+			// The downsampler looks over the selected pages, or one signature at a time, for each image's largest use
+			if (imageDownsampler != null
+			    && (outputPage == firstOutputPage || signaturePages > 0 && (outputPage - 1) % signaturePages == 0)) {
+				int scopeEnd = signaturePages > 0 ? Math.min(lastPage, outputPage + signaturePages - 1) : lastPage;
+				imageDownsampler.setScope(sourcePagesOn(pageNumbers, outputPage, scopeEnd, slots), this::getSourcePage);
+			}
+			if (!sheetSides.includes(outputPage))
+				continue;
+
+			ImpositionPageEvent pageEvent = new ImpositionPageEvent();
+			pageEvent.begin();
 
-		while (pageNumberIterator.hasNext()) {
 			PdfPage page = addNewPage(imposedPageSize);
 			PdfCanvas canvas = getCanvasForPage(page);
-			Iterator<Point> imposedLocationIterator = imposer.iterator();
+			int slot = (outputPage - 1) * slots;
 
-			while (pageNumberIterator.hasNext() && imposedLocationIterator.hasNext()) {
-				Integer pageNumber = pageNumberIterator.next();
-				// Invalid pages still need to be accounted for in the imposition
-				Point location = imposedLocationIterator.next();
+			for (int position = 0; position < slots && slot < pageNumbers.size(); position++) {
+				int pageNumber = pageNumbers.pageAt(slot++);
 
-				if (pageNumber == null || pageNumber < 0)
+				// Invalid pages still need to be accounted for in the imposition
+				if (pageNumber <= 0)
 					continue;
 
-				PdfPage sourcePage = getSourcePage(pageNumber.intValue());
-				PdfFormXObject copiedPage = getCopiedPage(sourcePage);
+				time = startTiming();
+				PdfFormXObject copiedPage = copiedPages.get(pageNumber);
+				PdfPage sourcePage = copiedPage == null ? getSourcePage(pageNumber) : null;
+				time = lap(ImpositionPhase.SOURCE_PAGE, time);
+
+				if (copiedPage == null) {
+					SourcePageCopyEvent copyEvent = new SourcePageCopyEvent();
+					copyEvent.begin();
+
+					copiedPage = getCopiedPage(sourcePage);
+					if (streaming && !sharedSources)
+						releaseSourcePage(pageNumber);
+					copiedPages.put(pageNumber, copiedPage);
+					time = lap(ImpositionPhase.COPY, time);
+
+					copyEvent.end();
+					if (copyEvent.shouldCommit()) {
+						copyEvent.sourcePage = pageNumber;
+						copyEvent.commit();
+					}
+				}
+				pageEvent.sourcePages++;
+
+				imposeSlot(canvas, copiedPage, imposer, position);
+				lap(ImpositionPhase.IMPOSE, time);
+			}
+
+			if (streaming) {
+				time = startTiming();
+				flushPage(page);
+				// Flushed Form XObjects can't be placed again, so a page repeated on a later output page is copied anew
+				copiedPages.clear();
+				lap(ImpositionPhase.FLUSH, time);
+			}
+			listener.pageEmitted(outputPage);
+			outputPages++;
 
-				imposePage(canvas, copiedPage, location);
+			pageEvent.end();
+			if (pageEvent.shouldCommit()) {
+				pageEvent.outputPage = outputPage;
+				pageEvent.commit();
 			}
 		}
 
-		in.close();
+		PdfWriter writer = out.getWriter();
+		int inputPages = getSourcePageCount();
+		time = startTiming();
+		if (!sharedSources) {
+			for (PdfDocument source : sources) {
+				source.close();
+			}
+		}
 		out.close();
+		lap(ImpositionPhase.CLOSE, time);
+
+		long bytesWritten = writer == null ? -1 : writer.getCurrentPos();
+		listener.impositionCompleted(bytesWritten);
+
+		jobEvent.end();
+		if (jobEvent.shouldCommit()) {
+			jobEvent.strategy = getClass().getName();
+			jobEvent.inputPages = inputPages;
+			jobEvent.outputPages = outputPages;
+			jobEvent.instructionPages = instructionPages;
+			jobEvent.bytesWritten = bytesWritten;
+			jobEvent.commit();
+		}
+	}
+
+	/**
+	 * Performs the imposition on a new virtual thread, so that no platform thread is held while it runs or waits.
+	 *
+	 * @return A future completed when the imposition is done.
+	 * @see #imposeAsync(Executor)
+	 */
+	public CompletableFuture<Void> imposeAsync() {
+		return imposeAsync(VIRTUAL_THREADS);
+	}
+
+	/**
+	 * Performs the imposition on <code>executor</code>. Cancelling the returned future stops the imposition before the
+	 * next output page, and the source and output documents are then closed.
+	 *
+	 * <p>
+	 * <strong>Note:</strong> a cancelled imposition leaves a complete, valid PDF holding only the pages imposed before
+	 * cancellation. It is indistinguishable from a finished booklet, so callers that cancel should delete or discard the
+	 * output themselves.
+	 * </p>
+	 *
+	 * @param executor
+	 *          The executor on which to run {@link #impose()}.
+	 * @return A future completed when the imposition is done, or completed exceptionally if it fails.
+	 */
+	public CompletableFuture<Void> imposeAsync(Executor executor) {
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		cancellation = future;
+
+		executor.execute(() -> {
+			try {
+				impose();
+				future.complete(null);
+			} catch (CancellationException e) {
+				// impose() has already closed the documents. Anyone else's cancellation is a failure, wrapped, since the
+				// future would otherwise report itself as cancelled.
+				if (!future.isCancelled())
+					future.completeExceptionally(new CompletionException(e));
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			}
+		});
+
+		return future;
+	}
+
+	// Checked between output pages, so cancellation never leaves a page half drawn
+	private void checkCancelled() {
+		Future<Void> future = cancellation;
+		if (future != null && future.isCancelled())
+			throw new CancellationException("Imposition cancelled");
+	}
+
+	// Also used by MultiOutputImposition to close the outputs of strategies that never ran
+	void closeQuietly() {
+		List<PdfDocument> documents = new ArrayList<>(sharedSources ? Collections.emptyList() : sources);
+		documents.add(out);
+
+		for (PdfDocument document : documents) {
+			try {
+				if (!document.isClosed())
+					document.close();
+			} catch (RuntimeException e) {
+				// e.g. an output with no pages yet, which iText refuses to write
+			}
+		}
+	}
+
+	// Timing helpers: these do nothing, not even read the clock, unless a listener is set
+
+	private long startTiming() {
+		if (listener == ImpositionListener.NONE)
+			return 0;
+		return System.nanoTime();
+	}
+
+	private long lap(ImpositionPhase phase, long since) {
+		if (listener == ImpositionListener.NONE)
+			return 0;
+
+		long now = System.nanoTime();
+		listener.phaseCompleted(phase, now - since);
+		return now;
 	}
 
 	/**
@@ -158,6 +627,45 @@ public abstract class AbstractImpositionStrategy {
 	 */
 	protected abstract Iterable<Integer> getPageNumberIterable();
 
+	/**
+	 * Returns the page numbers from {@link #getPageNumberIterable()} as a random-access sequence. Iterables that are not
+	 * already a <code>PageNumberSequence</code> are copied.
+	 *
+	 * @return A <code>PageNumberSequence</code> of page numbers, in imposition order.
+	 */
+	protected PageNumberSequence getPageNumberSequence() {
+		return PageNumberSequence.of(getPageNumberIterable());
+	}
+
+	/**
+	 * Returns the page numbers for every slot on the output pages, repeating each page's share of the layout when more
+	 * than one copy is printed per sheet, and blank for sides that are not imposed.
+	 *
+	 * @return A <code>PageNumberSequence</code> with {@link #getSlotsPerPage()} slots to each output page.
+	 */
+	private PageNumberSequence getLayoutSequence() {
+		PageNumberSequence pageNumbers = getPageNumberSequence();
+		int slots = getSlotsPerPage();
+		if (copiesPerSheet > 1)
+			pageNumbers = PageNumberSequence.repeat(pageNumbers, slots / copiesPerSheet, copiesPerSheet);
+		if (sheetSides == SheetSides.BOTH)
+			return pageNumbers;
+
+		// Blank out the other sides, so that impose() never reads their source pages
+		PageNumberSequence allSides = pageNumbers;
+		return new PageNumberSequence() {
+			@Override
+			public int size() {
+				return allSides.size();
+			}
+
+			@Override
+			public int pageAt(int slot) {
+				return sheetSides.includes(slot / slots + 1) ? allSides.pageAt(slot) : 0;
+			}
+		};
+	}
+
 	/**
 	 * Used by the {@link #impose() impose()} method to control imposition
 	 *
@@ -165,6 +673,15 @@ public abstract class AbstractImpositionStrategy {
 	 */
 	protected abstract NupImposer getNupImposer();
 
+	/**
+	 * Returns the number of source pages imposed on each output page.
+	 *
+	 * @return The number of positions provided by the {@link #getNupImposer() NupImposer}.
+	 */
+	protected int getSlotsPerPage() {
+		return getNupImposer().getSlotCount();
+	}
+
 	/**
 	 * Returns an (optional) PDF of instruction pages to put at the start of the document.
 	 *
@@ -177,7 +694,8 @@ public abstract class AbstractImpositionStrategy {
 	}
 
 	/**
-	 * Creates a <code>PdfDocument</code> for a named PDF instructions file
+	 * Creates a <code>PdfDocument</code> for a named PDF instructions file. The file is read from the classpath once per
+	 * process, and parsed from memory after that.
 	 *
 	 * @param name
 	 *          The basename of the instruction file to use
@@ -186,23 +704,28 @@ public abstract class AbstractImpositionStrategy {
 	 *           if the instructions cannot be read.
 	 */
 	protected PdfDocument getInstructionResource(String name) throws IOException {
-		ClassLoader loader = Thread.currentThread().getContextClassLoader();
-		InputStream stream = loader.getResourceAsStream("instructions/" + name + ".pdf");
-		return new PdfDocument(new PdfReader(stream));
+		return InstructionCache.open(name);
 	}
 
 	/**
 	 * @param imposedPageSize
+	 * @return The number of instruction pages included
 	 * @throws IOException
 	 */
-	private void includeInstructions(PageSize imposedPageSize) throws IOException {
+	private int includeInstructions(PageSize imposedPageSize) throws IOException {
 		if (!includeInstructions)
-			return;
+			return 0;
 		PdfDocument instructions = getInstructions();
 		if (instructions == null)
-			return;
+			return 0;
 
-		instructions.copyPagesTo(1, instructions.getNumberOfPages(), out);
+		try {
+			int pages = instructions.getNumberOfPages();
+			instructions.copyPagesTo(1, pages, out);
+			return pages;
+		} finally {
+			instructions.close();
+		}
 	}
 
 	/**
@@ -220,20 +743,184 @@ public abstract class AbstractImpositionStrategy {
 	}
 
 	protected PdfCanvas getCanvasForPage(PdfPage page) {
+		double[] matrix = getImposedMatrix();
 		PdfCanvas canvas = new PdfCanvas(page);
-		canvas.concatMatrix(getNupImposer().getTransformMatrix());
+		canvas.concatMatrix(matrix[0], matrix[1], matrix[2], matrix[3], matrix[4], matrix[5]);
 		return canvas;
 	}
 
+	// The imposer's transformation matrix, as the six values of a cm operator
+	private double[] getImposedMatrix() {
+		if (imposedMatrix == null) {
+			double[] matrix = new double[6];
+			getNupImposer().getTransformMatrix().getMatrix(matrix);
+			imposedMatrix = matrix;
+		}
+		return imposedMatrix;
+	}
+
+	/**
+	 * @return The total number of pages in all the source documents.
+	 */
+	protected int getSourcePageCount() {
+		return sourceOffsets[sources.size()];
+	}
+
+	/**
+	 * Finds a source page by its number in the sequence of all source documents' pages.
+	 *
+	 * @param number
+	 *          The page number, 1-based, across all the source documents
+	 * @return The source page.
+	 */
 	protected PdfPage getSourcePage(int number) {
-		return in.getPage(number);
+		int source = getSourceIndex(number);
+		return sources.get(source).getPage(number - sourceOffsets[source]);
+	}
+
+	// Binary search for the last document starting before this page
+	private int getSourceIndex(int number) {
+		int low = 0, high = sources.size() - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (sourceOffsets[middle] < number)
+				low = middle;
+			else
+				high = middle - 1;
+		}
+		return low;
 	}
 
 	protected PdfFormXObject getCopiedPage(PdfPage sourcePage) throws IOException {
-		return sourcePage.copyAsFormXObject(out);
+		PdfFormXObject copiedPage = pruneResources ? ResourcePruner.copyAsFormXObject(sourcePage, out)
+		    : sourcePage.copyAsFormXObject(out);
+		if (imageDownsampler != null) {
+			double[] matrix = getImposedMatrix();
+			imageDownsampler.process(sourcePage, out, Math.sqrt(Math.abs(matrix[0] * matrix[3] - matrix[1] * matrix[2])));
+		}
+		// After downsampling, so that identical images are merged in their final form
+		if (streamDeduplicator != null) {
+			streamDeduplicator.process(copiedPage);
+		}
+		if (streamRecompressor != null) {
+			streamRecompressor.process(copiedPage);
+		}
+		return copiedPage;
+	}
+
+	// The distinct source pages imposed on output pages first to last, blank slots aside
+	private static int[] sourcePagesOn(PageNumberSequence pageNumbers, int first, int last, int slots) {
+		int end = Math.min(last * slots, pageNumbers.size());
+		return IntStream.range((first - 1) * slots, end).map(pageNumbers::pageAt).filter(n -> n > 0).distinct().toArray();
+	}
+
+	// Reads the position by index, so that placing a page allocates nothing beyond what the canvas does
+	void imposeSlot(PdfCanvas canvas, PdfFormXObject copiedPage, NupImposer imposer, int position) {
+		int rotation = imposer.getRotation(position);
+		if (rotation == 0)
+			imposePage(canvas, copiedPage, imposer.getX(position), imposer.getY(position));
+		else
+			imposePage(canvas, copiedPage, imposer.getX(position), imposer.getY(position), rotation);
 	}
 
+	/**
+	 * Places a copied page with its lower left corner at <code>location</code>.
+	 *
+	 * @param canvas
+	 *          The output page's canvas
+	 * @param copiedPage
+	 *          The copied source page
+	 * @param location
+	 *          Where to place the page
+	 * @deprecated No longer called by {@link #impose()}, which places pages by coordinate so as not to allocate a
+	 *             <code>Point</code> for each. Override {@link #imposePage(PdfCanvas, PdfFormXObject, double, double)}
+	 *             instead.
+	 */
+	@Deprecated
 	protected void imposePage(PdfCanvas canvas, PdfFormXObject copiedPage, Point location) {
-		canvas.addXObjectAt(copiedPage, (float) location.getX(), (float) location.getY());
+		imposePage(canvas, copiedPage, location.getX(), location.getY());
+	}
+
+	/**
+	 * Places a copied page, unrotated, with its lower left corner at (<code>x</code>, <code>y</code>).
+	 *
+	 * @param canvas
+	 *          The output page's canvas
+	 * @param copiedPage
+	 *          The copied source page
+	 * @param x
+	 *          Where to place the page, from {@link NupImposer#getX(int)}
+	 * @param y
+	 *          Where to place the page, from {@link NupImposer#getY(int)}
+	 */
+	protected void imposePage(PdfCanvas canvas, PdfFormXObject copiedPage, double x, double y) {
+		canvas.addXObjectAt(copiedPage, (float) x, (float) y);
+	}
+
+	/**
+	 * Places a copied page, rotated counter-clockwise by <code>rotation</code> degrees, with the lower left corner of its
+	 * rotated bounding box at (<code>x</code>, <code>y</code>). Unrotated pages are placed by
+	 * {@link #imposePage(PdfCanvas, PdfFormXObject, double, double)}.
+	 *
+	 * @param canvas
+	 *          The output page's canvas
+	 * @param copiedPage
+	 *          The copied source page
+	 * @param x
+	 *          Where to place the page, from {@link NupImposer#getX(int)}
+	 * @param y
+	 *          Where to place the page, from {@link NupImposer#getY(int)}
+	 * @param rotation
+	 *          The rotation in degrees, from {@link NupImposer#getRotation(int)}
+	 */
+	protected void imposePage(PdfCanvas canvas, PdfFormXObject copiedPage, double x, double y, int rotation) {
+		if (rotation == 0) {
+			imposePage(canvas, copiedPage, x, y);
+			return;
+		}
+
+		// Read in place, rather than through toRectangle(), which would allocate for every page
+		PdfArray bBox = copiedPage.getBBox();
+		double llx = bBox.getAsNumber(0).doubleValue(), lly = bBox.getAsNumber(1).doubleValue();
+		double urx = bBox.getAsNumber(2).doubleValue(), ury = bBox.getAsNumber(3).doubleValue();
+		double boxX = Math.min(llx, urx), boxY = Math.min(lly, ury);
+		double width = Math.abs(urx - llx), height = Math.abs(ury - lly);
+
+		double cos = Math.rint(Math.cos(Math.toRadians(rotation)));
+		double sin = Math.rint(Math.sin(Math.toRadians(rotation)));
+		// Where the rotated box's lower left corner lands, relative to its rotated origin
+		double minX = Math.min(0, cos * width) + Math.min(0, -sin * height);
+		double minY = Math.min(0, sin * width) + Math.min(0, cos * height);
+		double e = x - minX - (cos * boxX - sin * boxY);
+		double f = y - minY - (sin * boxX + cos * boxY);
+
+		canvas.addXObjectWithTransformationMatrix(copiedPage, (float) cos, (float) sin, (float) -sin, (float) cos,
+		    (float) e, (float) f);
+	}
+
+	/**
+	 * Used in streaming mode to write a completed output page, along with everything copied into it, to the output.
+	 *
+	 * @param page
+	 *          The completed output page
+	 */
+	protected void flushPage(PdfPage page) {
+		page.flush(true);
+		for (PdfDocument source : sources) {
+			out.flushCopiedObjects(source);
+		}
+	}
+
+	/**
+	 * Used in streaming mode to release the parsed objects of a source page once it has been imposed: its dictionary,
+	 * everything reachable from it, and the source document's page tree's hold on the <code>PdfPage</code> itself.
+	 * Anything released is read again from the source if it is needed later.
+	 *
+	 * @param number
+	 *          The number of the source page that will not be needed again, 1-based, across all the source documents
+	 */
+	protected void releaseSourcePage(int number) {
+		int source = getSourceIndex(number);
+		new PageFlushingHelper(sources.get(source)).releaseDeep(number - sourceOffsets[source]);
 	}
 }
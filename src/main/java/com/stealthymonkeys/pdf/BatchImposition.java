@@ -0,0 +1,333 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * <p>
+ * Imposes many PDF files in one JVM, using a bounded pool of worker threads. Each input is imposed into the output
+ * directory as <code>&lt;name&gt;-booklet.pdf</code>. Inputs from different directories with the same name are
+ * numbered in input order, as <code>&lt;name&gt;-2-booklet.pdf</code> and so on, and an input listed twice is imposed
+ * once.
+ * </p>
+ *
+ * <p>
+ * A failure imposing one file is recorded in the {@link Report} and does not stop the rest of the batch. Whatever was
+ * written of the failed file's booklet is deleted.
+ * </p>
+ *
+ * @author Erik Ogan
+ *
+ */
+public class BatchImposition {
+	/**
+	 * The work done for each file in the batch.
+	 */
+	public interface Job {
+		/**
+		 * Impose a single file.
+		 *
+		 * @param inFile
+		 *          The source PDF
+		 * @param outFile
+		 *          The booklet output file. This file will be overwritten.
+		 * @throws IOException
+		 *           if <code>inFile</code> cannot be read, or <code>outFile</code> cannot be written.
+		 */
+		void impose(File inFile, File outFile) throws IOException;
+	}
+
+	/**
+	 * The outcome of a batch: how many files succeeded, which failed and why, and how long it took.
+	 */
+	public static class Report {
+		private final int										succeeded;
+		private final Map<File, Throwable>	failures;
+		private final long									elapsedNanos;
+
+		Report(int succeeded, Map<File, Throwable> failures, long elapsedNanos) {
+			this.succeeded = succeeded;
+			this.failures = Collections.unmodifiableMap(failures);
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		public int getSucceeded() {
+			return succeeded;
+		}
+
+		/**
+		 * @return The input files that could not be imposed, in input order, mapped to the cause. Errors, such as running
+		 *         out of memory on one file, are recorded here too.
+		 */
+		public Map<File, Throwable> getFailures() {
+			return failures;
+		}
+
+		public long getElapsedNanos() {
+			return elapsedNanos;
+		}
+
+		/**
+		 * @return The number of files processed (successfully or not) per second of wall-clock time.
+		 */
+		public double getFilesPerSecond() {
+			if (elapsedNanos == 0)
+				return 0.0;
+			return (succeeded + failures.size()) / (elapsedNanos / 1e9);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder summary = new StringBuilder();
+			summary.append(String.format("Imposed %d of %d files in %.2fs (%.1f files/sec)", succeeded,
+			    succeeded + failures.size(), elapsedNanos / 1e9, getFilesPerSecond()));
+
+			for (Map.Entry<File, Throwable> failure : failures.entrySet()) {
+				summary.append(String.format("%nFAILED %s: %s", failure.getKey(), failure.getValue()));
+			}
+
+			return summary.toString();
+		}
+	}
+
+	private List<File>			inputs;
+	private Map<File, File>	outputs	= new LinkedHashMap<>();
+	private Job							job;
+
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Create a batch that imposes each input with a default {@link FourUpBookletStrategy}.
+	 *
+	 * @param inputs
+	 *          The PDF files to impose
+	 * @param outputDirectory
+	 *          The directory in which to write the booklets. It must exist.
+	 */
+	public BatchImposition(List<File> inputs, File outputDirectory) {
+		this(inputs, outputDirectory, BatchImposition::imposeBooklet);
+	}
+
+	/**
+	 * @param inputs
+	 *          The PDF files to impose
+	 * @param outputDirectory
+	 *          The directory in which to write the booklets. It must exist.
+	 * @param job
+	 *          The work to do for each file.
+	 */
+	public BatchImposition(List<File> inputs, File outputDirectory, Job job) {
+		// Lower case, so that names differing only in case don't collide on case-insensitive file systems either
+		Set<String> taken = new HashSet<>();
+		for (File input : inputs) {
+			if (outputs.containsKey(input))
+				continue;
+
+			String base = input.getName().replaceFirst("(\\.[^.]+)?$", "");
+			String name = base + "-booklet.pdf";
+			for (int n = 2; !taken.add(name.toLowerCase(Locale.ROOT)); n++) {
+				name = base + "-" + n + "-booklet.pdf";
+			}
+			outputs.put(input, new File(outputDirectory, name));
+		}
+
+		this.inputs = new ArrayList<>(outputs.keySet());
+		this.job = job;
+	}
+
+	/**
+	 * Set the number of worker threads. Defaults to the number of available processors.
+	 *
+	 * @param threads
+	 *          The maximum number of files to impose concurrently.
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Thread count must be positive: " + threads);
+		this.threads = threads;
+	}
+
+	/**
+	 * Imposes every input, waiting for the whole batch to complete.
+	 *
+	 * @return A report of the batch.
+	 * @throws InterruptedIOException
+	 *           if the calling thread is interrupted while waiting for the workers.
+	 */
+	public Report impose() throws InterruptedIOException {
+		Map<File, Throwable> failures = Collections.synchronizedMap(new LinkedHashMap<>());
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, inputs.size())));
+		AtomicInteger succeeded = new AtomicInteger();
+		long start = System.nanoTime();
+
+		for (File input : inputs) {
+			pool.execute(() -> {
+				File output = getOutputFile(input);
+				try {
+					job.impose(input, output);
+					succeeded.incrementAndGet();
+				} catch (Throwable e) {
+					// Errors too: running out of memory on one huge scan must not leave its partial output behind
+					failures.put(input, e);
+					output.delete();
+				}
+			});
+		}
+
+		pool.shutdown();
+		try {
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			pool.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for batch workers");
+		}
+
+		Map<File, Throwable> ordered = new LinkedHashMap<>();
+		for (File input : inputs) {
+			if (failures.containsKey(input))
+				ordered.put(input, failures.get(input));
+		}
+
+		return new Report(succeeded.get(), ordered, System.nanoTime() - start);
+	}
+
+	/**
+	 * Returns the file a given input will be imposed into.
+	 *
+	 * @param input
+	 *          A PDF file in the batch
+	 * @return The booklet file for <code>input</code>, in the output directory.
+	 * @throws IllegalArgumentException
+	 *           if <code>input</code> is not in the batch.
+	 */
+	public File getOutputFile(File input) {
+		File output = outputs.get(input);
+		if (output == null)
+			throw new IllegalArgumentException("Not in the batch: " + input);
+		return output;
+	}
+
+	// The output is only opened once the input has parsed, and whatever was opened is closed if anything fails
+	private static void imposeBooklet(File inFile, File outFile) throws IOException {
+		PdfReader reader = new PdfReader(inFile);
+		PdfDocument source = null, destination = null;
+		AbstractImpositionStrategy strategy;
+
+		try {
+			source = new PdfDocument(reader);
+			destination = new PdfDocument(new PdfWriter(outFile));
+			strategy = new FourUpBookletStrategy(source, destination);
+		} catch (IOException | RuntimeException e) {
+			if (source != null)
+				source.close();
+			else
+				reader.close();
+			if (destination != null)
+				destination.close();
+			throw e;
+		}
+
+		// Closes both documents, even if it fails
+		strategy.impose();
+	}
+
+	/**
+	 * Expands a batch source into a list of input files. The source may be:
+	 * <ul>
+	 * <li>a directory, meaning every <code>.pdf</code> file in it,
+	 * <li>a glob on file names within a directory, e.g. <code>scans/*.pdf</code>, or
+	 * <li>a manifest file, listing one input path per line. Blank lines and lines starting with <code>#</code> are
+	 * ignored, and relative paths are resolved against the manifest's directory.
+	 * </ul>
+	 *
+	 * @param source
+	 *          A directory, glob, or manifest path
+	 * @return The input files, sorted by name for directories and globs, in manifest order otherwise.
+	 * @throws FileNotFoundException
+	 *           if <code>source</code> does not exist.
+	 * @throws IOException
+	 *           if <code>source</code> cannot be read.
+	 */
+	public static List<File> resolveInputs(String source) throws FileNotFoundException, IOException {
+		Path path = Paths.get(source);
+
+		if (Files.isDirectory(path))
+			return listDirectory(path, "*.{pdf,PDF}");
+
+		if (Files.isRegularFile(path) && source.toLowerCase().endsWith(".pdf"))
+			return Collections.singletonList(path.toFile());
+
+		if (Files.isRegularFile(path))
+			return readManifest(path);
+
+		Path directory = path.getParent() == null ? Paths.get(".") : path.getParent();
+		if (path.getFileName() != null && Files.isDirectory(directory))
+			return listDirectory(directory, path.getFileName().toString());
+
+		throw new FileNotFoundException("No such batch directory, glob or manifest: " + source);
+	}
+
+	private static List<File> listDirectory(Path directory, String glob) throws IOException {
+		List<File> files = new ArrayList<>();
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+			for (Path entry : stream) {
+				if (Files.isRegularFile(entry))
+					files.add(entry.toFile());
+			}
+		}
+
+		Collections.sort(files);
+		return files;
+	}
+
+	private static List<File> readManifest(Path manifest) throws IOException {
+		List<File> files = new ArrayList<>();
+		Path base = manifest.toAbsolutePath().getParent();
+
+		for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#"))
+				continue;
+			files.add(base.resolve(line).toFile());
+		}
+
+		return files;
+	}
+}
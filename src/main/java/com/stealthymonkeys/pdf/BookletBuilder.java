@@ -12,14 +12,30 @@
  */
 package com.stealthymonkeys.pdf;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
 /**
  * Simple interface to the BookletBuilder library. At the moment, this presumes you wish to make a 4-up duplex
  * booklet-ordered file. Files can be provided on the command-line OR Swing Open and Save dialogs will be used to prompt
@@ -31,15 +47,32 @@ import javax.swing.filechooser.FileNameExtensionFilter;
  *
  */
 public class BookletBuilder {
-	private File		in						= null;
-	private File		out						= null;
-	private boolean	instructions	= true;
+	private static final String STANDARD_STREAM = "-";
+
+	private File					in						= null;
+	private File					out						= null;
+	private boolean				instructions	= true;
+	private boolean				streaming			= false;
+	private InputMode			inputMode			= null;
+	private boolean				stats					= false;
+	private double				downsampleDpi	= 0;
+	private boolean				prune					= false;
+	private boolean				dedup					= false;
+	private int						copies				= 1;
+	private int						signature			= 0;
+	private int						pagesPerSide	= 4;
+	private int						firstPage			= 1;
+	private int						lastPage			= Integer.MAX_VALUE;
+	private OutputProfile	outputProfile	= null;
+	private ResultCache		cache					= null;
+
+	private final List<File> additionalInputs = new ArrayList<>();
 
 	/**
 	 * @param inFile
-	 *          String path to the input PDF file. Can be null.
+	 *          String path to the input PDF file, or <code>-</code> for standard input. Can be null.
 	 * @param outFile
-	 *          String path to the output PDF file. Can be null.
+	 *          String path to the output PDF file, or <code>-</code> for standard output. Can be null.
 	 * @param instructions
 	 *          boolean indicating whether assembly instructions should be included in the resulting file.
 	 *
@@ -56,6 +89,147 @@ public class BookletBuilder {
 		}
 	}
 
+	/**
+	 * Add another input PDF file, whose pages will follow those of the input file (and any others already added) in
+	 * the booklet.
+	 *
+	 * @param inFile
+	 *          String path to the additional PDF file.
+	 */
+	public void addInput(String inFile) {
+		additionalInputs.add(new File(inFile));
+	}
+
+	/**
+	 * Write each imposed page as soon as it is complete, keeping memory flat for large inputs.
+	 *
+	 * @see AbstractImpositionStrategy#enableStreaming()
+	 */
+	public void enableStreaming() {
+		streaming = true;
+	}
+
+	/**
+	 * Print a summary of per-phase timings and throughput to standard error after each booklet is built.
+	 */
+	public void enableStatistics() {
+		stats = true;
+	}
+
+	/**
+	 * Copy only the resources each source page uses.
+	 *
+	 * @see AbstractImpositionStrategy#enableResourcePruning()
+	 */
+	public void enableResourcePruning() {
+		prune = true;
+	}
+
+	/**
+	 * Merge identical streams in the output, and report the bytes saved to standard error.
+	 *
+	 * @see StreamDeduplicator
+	 */
+	public void enableDeduplication() {
+		dedup = true;
+	}
+
+	/**
+	 * Resample images to no more than the given resolution, as printed in the booklet, and report the bytes saved to
+	 * standard error.
+	 *
+	 * @param dpi
+	 *          The target resolution in dots per inch.
+	 * @see ImageDownsampler
+	 */
+	public void enableDownsampling(double dpi) {
+		downsampleDpi = dpi;
+	}
+
+	/**
+	 * Print several copies of the booklet on each sheet, to be cut apart after printing.
+	 *
+	 * @param copies
+	 *          The number of copies per sheet: 1, 2 or 4.
+	 * @see AbstractImpositionStrategy#setCopiesPerSheet(int)
+	 */
+	public void setCopiesPerSheet(int copies) {
+		this.copies = copies;
+	}
+
+	/**
+	 * Choose how many pages are printed on each side of a sheet. Copies per sheet and signatures are only available
+	 * 4-up.
+	 *
+	 * @param pages
+	 *          The number of pages on each side of a sheet: 2, 4, 8 or 16.
+	 * @see NupBookletStrategy
+	 */
+	public void setPagesPerSide(int pages) {
+		pagesPerSide = pages;
+	}
+
+	/**
+	 * Print the booklet in signatures, each ordered and folded on its own, rather than as a single thick booklet.
+	 *
+	 * @param sheets
+	 *          The number of sheets in each signature, or 0 for a single signature.
+	 * @see FourUpBookletStrategy#setSheetsPerSignature(int)
+	 */
+	public void setSheetsPerSignature(int sheets) {
+		signature = sheets;
+	}
+
+	/**
+	 * Build only a range of output pages, for example to reprint sheets lost to a jam. Assembly instructions are left
+	 * out, since they would only be printed again.
+	 *
+	 * @param first
+	 *          The first output page to build (1-based, inclusive)
+	 * @param last
+	 *          The last output page to build (1-based, inclusive)
+	 * @see AbstractImpositionStrategy#selectOutputPages(int, int)
+	 */
+	public void selectOutputPages(int first, int last) {
+		if (first < 1 || last < first)
+			throw new IllegalArgumentException("Invalid output page range: " + first + "-" + last);
+
+		firstPage = first;
+		lastPage = last;
+		instructions = false;
+	}
+
+	/**
+	 * Choose how hard to work at making booklets small. By default, iText's defaults are used.
+	 *
+	 * @param outputProfile
+	 *          The output profile.
+	 */
+	public void setOutputProfile(OutputProfile outputProfile) {
+		this.outputProfile = outputProfile;
+	}
+
+	/**
+	 * Keep imposed booklets in a cache, and copy them from there when the same input is imposed again with the same
+	 * options.
+	 *
+	 * @param cache
+	 *          The cache, or <code>null</code> for none.
+	 */
+	public void setResultCache(ResultCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Choose how input files are read. By default, iText's own choice is used.
+	 *
+	 * @param inputMode
+	 *          How to access input files.
+	 */
+	public void setInputMode(InputMode inputMode) {
+		this.inputMode = inputMode;
+	}
+
 	/**
 	 * Builds the booklet PDF file from the input PDF file, optionally including assembly instructions. If either file
 	 * name was null at construction, the user will be prompted for locations via Swing JFileChooser methods.
@@ -102,18 +276,256 @@ public class BookletBuilder {
 			}
 		}
 
-		AbstractImpositionStrategy strategy = new FourUpBookletStrategy(in, out);
+		impose(getInputs(), out);
+	}
+
+	private List<File> getInputs() {
+		List<File> inputs = new ArrayList<>();
+		inputs.add(in);
+		inputs.addAll(additionalInputs);
+		return inputs;
+	}
+
+	/**
+	 * Works out what building the booklet would produce, reading only the input file's page tree.
+	 *
+	 * @return The imposition plan.
+	 * @throws IOException
+	 *           If the input file cannot be read.
+	 * @see AbstractImpositionStrategy#getPlan()
+	 */
+	public ImpositionPlan plan() throws IOException {
+		List<PdfDocument> sources = openSources(getInputs(), null);
+		// Nothing is written, but the strategy needs somewhere to write it
+		PdfDocument destination = new PdfDocument(new PdfWriter(OutputStream.nullOutputStream()));
+
+		try {
+			AbstractImpositionStrategy strategy = createStrategy(sources, destination);
+			if (!instructions) {
+				strategy.disableInstructions();
+			}
+			return strategy.getPlan();
+		} finally {
+			destination.close();
+			for (PdfDocument source : sources) {
+				source.close();
+			}
+		}
+	}
+
+	/**
+	 * Builds a booklet for every input file, using a pool of worker threads. Failures are reported rather than thrown,
+	 * so one bad input does not stop the batch.
+	 *
+	 * @param inputs
+	 *          The PDF files to impose
+	 * @param outputDirectory
+	 *          The directory in which to write the booklets. It must exist.
+	 * @param threads
+	 *          The maximum number of files to impose concurrently.
+	 * @return A report of the files imposed, the files that failed, and the time taken.
+	 * @throws InterruptedIOException
+	 *           if interrupted while waiting for the batch to complete.
+	 */
+	public BatchImposition.Report buildBatch(List<File> inputs, File outputDirectory, int threads)
+	    throws InterruptedIOException {
+		BatchImposition batch = new BatchImposition(inputs, outputDirectory, this::impose);
+		batch.setThreads(threads);
+		return batch.impose();
+	}
+
+	private void impose(File inFile, File outFile) throws IOException {
+		impose(Collections.singletonList(inFile), outFile);
+	}
+
+	private void impose(List<File> inFiles, File outFile) throws IOException {
+		if (cache == null) {
+			impose(inFiles, null, outFile);
+			return;
+		}
+
+		// Standard input can only be read once, so keep it in case of a miss
+		byte[] input = inFiles.stream().anyMatch(BookletBuilder::isStandardStream) ? System.in.readAllBytes() : null;
+		List<Object> options = new ArrayList<>(Arrays.asList(FourUpBookletStrategy.class.getName(), "up=" + pagesPerSide,
+		    "instructions=" + instructions, "profile=" + outputProfile, "prune=" + prune, "dedup=" + dedup,
+		    "downsample=" + downsampleDpi, "copies=" + copies, "signature=" + signature, "pages=" + firstPage + "-" + lastPage));
+		List<InputStream> streams = new ArrayList<>();
+		for (File inFile : inFiles) {
+			// Lengths too, so that moving bytes from one input to the next changes the key
+			options.add(isStandardStream(inFile) ? input.length : inFile.length());
+			streams.add(isStandardStream(inFile) ? new ByteArrayInputStream(input) : new FileInputStream(inFile));
+		}
+
+		String key;
+		try (InputStream stream = new SequenceInputStream(Collections.enumeration(streams))) {
+			key = ResultCache.key(stream, options.toArray());
+		}
+
+		// A file is only opened once the booklet exists, so that a failure doesn't truncate it
+		ResultCache.Producer producer = result -> impose(inFiles, input, result);
+		boolean hit;
+		if (isStandardStream(outFile)) {
+			try (OutputStream destination = new FileOutputStream(FileDescriptor.out)) {
+				hit = cache.fetch(key, destination, producer);
+			}
+		} else {
+			hit = cache.fetch(key, outFile, producer);
+		}
+
+		if (hit && stats) {
+			System.err.println(getLabel(inFiles) + ": cache hit");
+		}
+	}
+
+	private void impose(List<File> inFiles, byte[] input, File outFile) throws IOException {
+		ImpositionStatistics statistics = stats ? new ImpositionStatistics() : null;
+		long opening = System.nanoTime();
+		List<PdfDocument> sources = openSources(inFiles, input);
+		PdfDocument destination = null;
+		AbstractImpositionStrategy strategy;
+		try {
+			destination = new PdfDocument(openWriter(outFile));
+			strategy = createStrategy(sources, destination);
+		} catch (IOException | RuntimeException e) {
+			// Once it has a strategy, impose() closes everything itself if it fails
+			for (PdfDocument source : sources) {
+				source.close();
+			}
+			if (destination != null)
+				destination.close();
+			throw e;
+		}
+		String inFile = getLabel(inFiles);
+
+		if (statistics != null) {
+			statistics.phaseCompleted(ImpositionPhase.OPEN, System.nanoTime() - opening);
+			strategy.setImpositionListener(statistics);
+		}
 
 		if (!instructions) {
 			strategy.disableInstructions();
 		}
+		strategy.selectOutputPages(firstPage, lastPage);
+		if (streaming) {
+			strategy.enableStreaming();
+		}
+		if (prune) {
+			strategy.enableResourcePruning();
+		}
+		ImageDownsampler downsampler = null;
+		if (downsampleDpi > 0) {
+			downsampler = new ImageDownsampler(downsampleDpi);
+			strategy.setImageDownsampler(downsampler);
+		}
+		StreamDeduplicator deduplicator = null;
+		if (dedup) {
+			deduplicator = new StreamDeduplicator(strategy.getResult());
+			strategy.setStreamDeduplicator(deduplicator);
+		}
 		strategy.impose();
+
+		// stderr, so as not to mix with any output written to stdout
+		if (statistics != null) {
+			System.err.println(inFile + ": " + statistics);
+		}
+		if (downsampler != null) {
+			System.err.println(inFile + ": downsampled " + downsampler.getImagesResampled() + " images, saving "
+			    + downsampler.getBytesSaved() + " bytes");
+		}
+		if (deduplicator != null) {
+			System.err.println(inFile + ": merged " + deduplicator.getStreamsMerged() + " duplicate streams, saving "
+			    + deduplicator.getBytesSaved() + " bytes");
+		}
+	}
+
+	private List<PdfDocument> openSources(List<File> inFiles, byte[] input) throws IOException {
+		List<PdfDocument> sources = new ArrayList<>();
+		try {
+			for (File inFile : inFiles) {
+				sources.add(new PdfDocument(openReader(inFile, input)));
+			}
+		} catch (IOException | RuntimeException e) {
+			// Don't leave the sources already opened holding their files
+			for (PdfDocument source : sources) {
+				source.close();
+			}
+			throw e;
+		}
+		return sources;
+	}
+
+	private static String getLabel(List<File> inFiles) {
+		return inFiles.size() == 1 ? inFiles.get(0).toString() : inFiles.toString();
+	}
+
+	// iText has to read the whole of standard input before it can parse the cross-reference table, but that is all. If
+	// it has already been read, input holds its bytes.
+	private PdfReader openReader(File inFile, byte[] input) throws IOException {
+		if (isStandardStream(inFile))
+			return new PdfReader(input != null ? new ByteArrayInputStream(input) : System.in);
+		return inputMode == null ? new PdfReader(inFile) : inputMode.open(inFile);
+	}
+
+	private AbstractImpositionStrategy createStrategy(List<PdfDocument> sources, PdfDocument destination) {
+		if (pagesPerSide != 4) {
+			if (copies > 1 || signature > 0)
+				throw new IllegalArgumentException("Copies per sheet and signatures are only available 4-up");
+			return new NupBookletStrategy(sources, destination, pagesPerSide);
+		}
+
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(sources, destination);
+		strategy.setCopiesPerSheet(copies);
+		if (signature > 0) {
+			strategy.setSheetsPerSignature(signature);
+		}
+		return strategy;
+	}
+
+	// A writer opened by the output profile hands the profile on to the strategy
+	private PdfWriter openWriter(File outFile) throws IOException {
+		// The raw descriptor, rather than System.out, so nothing else can interleave with the PDF
+		OutputStream stream = isStandardStream(outFile) ? new FileOutputStream(FileDescriptor.out) : null;
+
+		if (outputProfile != null)
+			return stream == null ? outputProfile.open(outFile) : outputProfile.open(stream);
+		return stream == null ? new PdfWriter(outFile) : new PdfWriter(stream);
+	}
+
+	private static boolean isStandardStream(File file) {
+		return STANDARD_STREAM.equals(file.getPath());
 	}
 
 	/**
 	 * @param args
-	 *          up to 3 strings containing, in order: a literal [-]-skipInstructions, the input PDF file path, and the
-	 *          output PDF file path.
+	 *          options, followed by up to 2 strings containing, in order: the input PDF file path, and the output PDF file
+	 *          path. More input file paths may come before the output file path; their pages follow in order. Either may
+	 *          be <code>-</code> for standard input or output; if the input is <code>-</code> the output defaults to
+	 *          <code>-</code>. Options are:
+	 *          <ul>
+	 *          <li><code>[-]-skipInstructions</code>: do not include assembly instructions
+	 *          <li><code>[-]-plan</code>: print the imposition plan for the input as JSON, without building the booklet
+	 *          <li><code>[-]-batch</code>: the input is a directory, glob or manifest file, and the output is a directory
+	 *          <li><code>[-]-stream</code>: write each imposed page as soon as it is complete, keeping memory flat
+	 *          <li><code>[-]-input MODE</code>: how to read input files: <code>mapped</code>, <code>buffered</code> or
+	 *          <code>randomAccess</code>
+	 *          <li><code>[-]-profile PROFILE</code>: how hard to compress the output: <code>fast</code>,
+	 *          <code>balanced</code> or <code>smallest</code>
+	 *          <li><code>[-]-stats</code>: print per-phase timings and throughput for each booklet
+	 *          <li><code>[-]-prune</code>: copy only the resources each source page uses
+	 *          <li><code>[-]-dedup</code>: merge identical streams, such as fonts or images embedded on every page
+	 *          <li><code>[-]-sheets RANGE</code>: build only some sheets, e.g. <code>143</code> or <code>140-150</code>;
+	 *          <code>f</code> or <code>b</code> after a sheet number selects its front or back, e.g. <code>143b</code>
+	 *          <li><code>[-]-up N</code>: print N pages on each side of a sheet: 2, 4 (the default), 8 or 16
+	 *          <li><code>[-]-signature N</code>: print in signatures of N sheets, each folded separately
+	 *          <li><code>[-]-copies N</code>: print N copies of the booklet on each sheet, to be cut apart: 1, 2 or 4
+	 *          <li><code>[-]-downsample DPI</code>: resample images above DPI, as printed, and recompress them as JPEG
+	 *          <li><code>[-]-cache DIR</code>: keep booklets in a cache directory, and reuse them for identical inputs
+	 *          <li><code>[-]-cacheSize BYTES</code>: the cache's size limit, after which the least recently used
+	 *          booklets are deleted
+	 *          <li><code>[-]-threads N</code>: the number of files to impose concurrently in batch mode
+	 *          <li><code>[-]-server</code>: run an HTTP server instead, passing any remaining arguments to
+	 *          {@link BookletServer#main(String[])}
+	 *          </ul>
 	 * @throws FileNotFoundException
 	 *           If either the input file or the path to the output file does not exist.
 	 * @throws IOException
@@ -121,26 +533,193 @@ public class BookletBuilder {
 	 */
 	public static void main(String[] args) throws FileNotFoundException, IOException {
 		boolean instructions = true;
+		boolean batch = false;
+		boolean plan = false;
+		boolean streaming = false;
+		InputMode inputMode = null;
+		OutputProfile outputProfile = null;
+		boolean stats = false;
+		double downsampleDpi = 0;
+		boolean prune = false;
+		boolean dedup = false;
+		int copies = 1;
+		int signature = 0;
+		int pagesPerSide = 4;
+		int[] outputPages = null;
+		String cacheDirectory = null;
+		long cacheSize = ResultCache.DEFAULT_MAX_BYTES;
+		int threads = Runtime.getRuntime().availableProcessors();
 		int next = 0;
 		String inFile = null, outFile = null;
 
-		if (args.length > 0) {
-			// .endsWith so that single or double dash is correct
-			if (args[0].endsWith("-skipInstructions")) {
-				instructions = false;
-				next++;
-			}
+		while (args.length > next && args[next].startsWith("-") && !args[next].equals(STANDARD_STREAM)) {
+			String option = args[next++];
 
-			if (args.length > next) {
-				inFile = args[next];
-				next++;
+			try {
+				// .endsWith so that single or double dash is correct
+				if (option.endsWith("-skipInstructions")) {
+					instructions = false;
+				} else if (option.endsWith("-plan")) {
+					plan = true;
+				} else if (option.endsWith("-batch")) {
+					batch = true;
+				} else if (option.endsWith("-stream")) {
+					streaming = true;
+				} else if (option.endsWith("-input") && args.length > next) {
+					inputMode = InputMode.forName(args[next++]);
+				} else if (option.endsWith("-profile") && args.length > next) {
+					outputProfile = OutputProfile.forName(args[next++]);
+				} else if (option.endsWith("-stats")) {
+					stats = true;
+				} else if (option.endsWith("-prune")) {
+					prune = true;
+				} else if (option.endsWith("-dedup")) {
+					dedup = true;
+				} else if (option.endsWith("-sheets") && args.length > next) {
+					outputPages = parseSheets(args[next++]);
+				} else if (option.endsWith("-up") && args.length > next) {
+					pagesPerSide = Integer.parseInt(args[next++]);
+				} else if (option.endsWith("-signature") && args.length > next) {
+					signature = Integer.parseInt(args[next++]);
+				} else if (option.endsWith("-copies") && args.length > next) {
+					copies = Integer.parseInt(args[next++]);
+				} else if (option.endsWith("-downsample") && args.length > next) {
+					downsampleDpi = Double.parseDouble(args[next++]);
+				} else if (option.endsWith("-cache") && args.length > next) {
+					cacheDirectory = args[next++];
+				} else if (option.endsWith("-cacheSize") && args.length > next) {
+					cacheSize = Long.parseLong(args[next++]);
+				} else if (option.endsWith("-threads") && args.length > next) {
+					threads = parseThreads(args[next++]);
+				} else if (option.endsWith("-server")) {
+					BookletServer.main(Arrays.copyOfRange(args, next, args.length));
+					return;
+				} else {
+					usage("Unknown option: " + option);
+				}
+			} catch (NumberFormatException e) {
+				// Every numeric option ends up here, with the value it failed to parse
+				usage("Invalid number for " + option + ": " + args[next - 1]);
 			}
+		}
 
-			if (args.length > next) {
-				outFile = args[next];
-			}
+		if (args.length > next) {
+			inFile = args[next];
+			next++;
+		}
+
+		// With more than two files, all but the last are inputs, imposed in order (a plan has no output)
+		List<String> additionalInputs = new ArrayList<>();
+		while (args.length - next > (plan ? 0 : 1)) {
+			additionalInputs.add(args[next++]);
+		}
+
+		if (args.length > next) {
+			outFile = args[next];
+		} else if (STANDARD_STREAM.equals(inFile)) {
+			outFile = STANDARD_STREAM;
+		}
+
+		BookletBuilder builder = new BookletBuilder(inFile, outFile, instructions);
+		additionalInputs.forEach(builder::addInput);
+		builder.setInputMode(inputMode);
+		builder.setOutputProfile(outputProfile);
+		if (streaming)
+			builder.enableStreaming();
+		if (stats)
+			builder.enableStatistics();
+		if (downsampleDpi > 0)
+			builder.enableDownsampling(downsampleDpi);
+		if (prune)
+			builder.enableResourcePruning();
+		if (dedup)
+			builder.enableDeduplication();
+		builder.setCopiesPerSheet(copies);
+		builder.setSheetsPerSignature(signature);
+		builder.setPagesPerSide(pagesPerSide);
+		if (outputPages != null)
+			builder.selectOutputPages(outputPages[0], outputPages[1]);
+		if (cacheDirectory != null)
+			builder.setResultCache(new ResultCache(new File(cacheDirectory), cacheSize));
+
+		if (plan) {
+			if (inFile == null)
+				usage("Plan mode requires an input file");
+
+			System.out.println(builder.plan().toJson());
+			return;
+		}
+
+		if (batch) {
+			if (inFile == null || outFile == null || !additionalInputs.isEmpty())
+				usage("Batch mode requires a source directory, glob or manifest, and an output directory");
+
+			BatchImposition.Report report = builder.buildBatch(BatchImposition.resolveInputs(inFile), new File(outFile),
+			    threads);
+			System.out.println(report);
+			if (!report.getFailures().isEmpty())
+				System.exit(1);
+			return;
 		}
-		new BookletBuilder(inFile, outFile, instructions).build();
+
+		builder.build();
+	}
+
+	/**
+	 * Converts a range of sheets, such as <code>143</code>, <code>140-150</code> or <code>143b</code>, to the output
+	 * pages they are printed on: the front of sheet <code>n</code> is page <code>2n - 1</code> and its back is page
+	 * <code>2n</code>. A range starts at the front and ends at the back of its sheets unless <code>f</code> or
+	 * <code>b</code> says otherwise.
+	 *
+	 * @param range
+	 *          The sheet range
+	 * @return The first and last output pages.
+	 */
+	static int[] parseSheets(String range) {
+		String[] ends = range.split("-", 2);
+		int first = parseSheetSide(ends[0], 1);
+		int last = parseSheetSide(ends[ends.length - 1], 0);
+
+		if (first < 1 || last < first)
+			usage("Invalid sheet range: " + range);
+		return new int[] { first, last };
 	}
 
+	private static int parseSheetSide(String sheet, int defaultSide) {
+		int side = defaultSide;
+		if (sheet.endsWith("f") || sheet.endsWith("b")) {
+			side = sheet.endsWith("f") ? 1 : 0;
+			sheet = sheet.substring(0, sheet.length() - 1);
+		}
+
+		return Integer.parseInt(sheet) * 2 - side;
+	}
+
+	private static int parseThreads(String value) {
+		try {
+			int threads = Integer.parseInt(value);
+			if (threads >= 1)
+				return threads;
+		} catch (NumberFormatException e) {
+			// Reported below
+		}
+
+		usage("Invalid thread count: " + value);
+		return 0;
+	}
+
+	private static void usage(String message) {
+		System.err.println(message);
+		System.err.println(
+		    "Usage: java -jar booklet-builder-all.jar [options] [<in_file>|- [<in_file> ...] [<out_file>|-]]");
+		System.err.println("       java -jar booklet-builder-all.jar --plan [--skipInstructions] <in_file>|- [<in_file> ...]");
+		System.err.println("       java -jar booklet-builder-all.jar --batch [--threads N] [options] "
+		    + "<directory|glob|manifest> <out_directory>");
+		System.err.println("       java -jar booklet-builder-all.jar --server [--port N] [--concurrency N] "
+		    + "[--maxRequestSize BYTES]");
+		System.err.println("Options: --skipInstructions, --stream, --input mapped|buffered|randomAccess, "
+		    + "--profile fast|balanced|smallest, --stats, --downsample DPI, "
+		    + "--prune, --dedup, --sheets RANGE, --up N, --signature N, --copies N, --cache DIR [--cacheSize BYTES]");
+		System.exit(2);
+	}
 }
@@ -13,8 +13,7 @@
 
 package com.stealthymonkeys.pdf;
 
-import java.util.Arrays;
-import java.util.Iterator;
+import java.util.PrimitiveIterator;
 
 /**
  * This class manages the page ordering for booklet production.
@@ -31,13 +30,9 @@ import java.util.Iterator;
  *
  */
 
-public class BookletPageNumberCollection implements Iterable<Integer> {
-	private int			pages;
-	private Integer	pageArray[];
-
-	private int printerExtent = 0;
-
-	private static final boolean debug = false;
+public class BookletPageNumberCollection implements PageNumberSequence {
+	private int	pages;
+	private int	printerExtent;
 
 	/**
 	 * Page Number Constructor
@@ -47,80 +42,69 @@ public class BookletPageNumberCollection implements Iterable<Integer> {
 	 */
 	public BookletPageNumberCollection(int pageCount) {
 		pages = pageCount;
-		initPageArray();
+		printerExtent = (pageCount + 7) / 8 * 8;
 	}
 
 	/**
-	 * Creates an iterator over the page numbers in the order they would be laid out in an n-up imposition.
-	 *
-	 * Positive values are returned for pages in the pageCount, negative values are given for blank pages necessary for
-	 * imposition.
+	 * Returns the number of slots in the imposition, including the blank pages necessary to pad it out to a multiple of
+	 * 8.
 	 *
-	 * @return An <code>Iterator</code> of page numbers. Positive values for pages existing in the source file, negative
-	 *         values for blank pages necessary for imposition.
+	 * @see com.stealthymonkeys.pdf.PageNumberSequence#size()
 	 */
 	@Override
-	public Iterator<Integer> iterator() {
-		return Arrays.asList(pageArray).iterator();
+	public int size() {
+		return printerExtent;
 	}
 
+	/**
+	 * Computes the page number for a slot in the order it would be laid out in an n-up imposition.
+	 *
+	 * Positive values are returned for pages in the pageCount, negative values are given for blank pages necessary for
+	 * imposition.
+	 *
+	 * @see com.stealthymonkeys.pdf.PageNumberSequence#pageAt(int)
+	 */
 	// Algorithmic inspiration originally cribbed from
 	// https://wiki.scribus.net/canvas/Imposition_proposal#Booklet_printing
-	private void initPageArray() {
-		pageArray = new Integer[printerExtent()];
-		int pairs[] = new int[printerExtent()];
-
-		// TODO: Optimize the two loops into one
-		for (int i = 0; i < (printerExtent() + 1) / 2; i++) {
-			int lower = i + 1;
-			int upper = printerExtent() - i;
-
-			switch (i % 2) {
-				case 0:
-					pairs[i * 2] = upper;
-					pairs[i * 2 + 1] = lower;
-					break;
-				case 1:
-					pairs[i * 2] = lower;
-					pairs[i * 2 + 1] = upper;
-					break;
-			}
-		}
-
-		for (int i = 0; i < printerExtent() / 4; i++) {
-			// truth be told, this one will always be positive
-			pageArray[i * 4 + 0] = validPage(pairs[i * 2]);
-			pageArray[i * 4 + 1] = validPage(pairs[i * 2 + 1]);
+	//
+	// The pages are first ordered as pairs for a saddle-stitched 2-up booklet (outermost pair first, alternating which
+	// side the lower page falls on). Each 4-up output page then takes its top row from the first half of those pairs and
+	// its bottom row from the second half, so the cut halves stack into a single booklet.
+	@Override
+	public int pageAt(int slot) {
+		if (slot < 0 || slot >= printerExtent)
+			throw new IndexOutOfBoundsException("Slot " + slot + " out of range for " + printerExtent + " slots");
 
-			pageArray[i * 4 + 2] = validPage(pairs[printerExtent / 2 + 2 * i]);
-			pageArray[i * 4 + 3] = validPage(pairs[printerExtent / 2 + 2 * i + 1]);
+		int side = slot / 4;
+		int position = slot % 4;
+		int pair = 2 * side + (position < 2 ? position : printerExtent / 2 + position - 2);
 
-			if (debug)
-				dumpPages();
-		}
+		return validPage(pairPage(pair));
 	}
 
-	private int printerExtent() {
-		if (printerExtent == 0)
-			printerExtent = (int) (Math.round(Math.ceil(pages / (8 * 1.0))) * 8);
-		return printerExtent;
+	/**
+	 * Creates an iterator over the page numbers in the order they would be laid out in an n-up imposition.
+	 *
+	 * Positive values are returned for pages in the pageCount, negative values are given for blank pages necessary for
+	 * imposition.
+	 *
+	 * @return An <code>Iterator</code> of page numbers. Positive values for pages existing in the source file, negative
+	 *         values for blank pages necessary for imposition.
+	 */
+	@Override
+	public PrimitiveIterator.OfInt iterator() {
+		return PageNumberSequence.super.iterator();
 	}
 
-	private void dumpPages() {
-		for (int i = 0; i < pageArray.length; i += 4) {
-			System.out.println("----||----");
-			System.out.printf("%-4s, %-4s\n%-4s, %-4s\n", dumpValue(i), dumpValue(i + 1), dumpValue(i + 2), dumpValue(i + 3));
-		}
-		System.out.println("====||====\n");
-	}
+	private int pairPage(int index) {
+		int i = index / 2;
+		boolean upperFirst = i % 2 == 0;
+		boolean first = index % 2 == 0;
 
-	private String dumpValue(int i) {
-		if (pageArray[i] == null)
-			return "null";
-		return pageArray[i].toString();
+		return upperFirst == first ? printerExtent - i : i + 1;
 	}
 
-	private Integer validPage(int page) {
+	private int validPage(int page) {
 		if (page > pages)
 			return -page;
 		return page;
@@ -0,0 +1,290 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import com.itextpdf.commons.exceptions.ITextException;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * <p>
+ * A long-running HTTP interface to the BookletBuilder library, so that callers do not pay JVM startup for each
+ * booklet. It uses only the JDK's built-in HTTP server and provides two endpoints:
+ * </p>
+ * <ul>
+ * <li><code>POST /impose</code>: the request body is a PDF, and the response body is the 4-up booklet produced by
+ * {@link FourUpBookletStrategy}. Add <code>?skipInstructions</code> to leave out the assembly instructions.
+ * <li><code>GET /health</code>: responds <code>200 OK</code> while the server is running.
+ * </ul>
+ *
+ * @author Erik Ogan
+ *
+ */
+public class BookletServer {
+	/**
+	 * The default port to listen on.
+	 */
+	public static final int DEFAULT_PORT = 8080;
+
+	/**
+	 * The default upload size limit, in bytes.
+	 */
+	public static final long DEFAULT_MAX_REQUEST_BYTES = 256L * 1024 * 1024;
+
+	private HttpServer			server;
+	private ExecutorService	executor;
+	private Semaphore				permits;
+	private long						maxRequestBytes;
+
+	// Package-private so the tests can attach a listener that fails part way through
+	volatile ImpositionListener impositionListener = ImpositionListener.NONE;
+
+	/**
+	 * @param address
+	 *          The address and port to listen on.
+	 * @param concurrency
+	 *          The maximum number of impositions to run at once, including reading their uploads. Further requests wait
+	 *          for a free slot.
+	 * @param maxRequestBytes
+	 *          The largest upload to accept. Larger requests are refused with <code>413</code>.
+	 * @throws IOException
+	 *           if the server cannot bind to <code>address</code>.
+	 */
+	public BookletServer(InetSocketAddress address, int concurrency, long maxRequestBytes) throws IOException {
+		if (concurrency < 1)
+			throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+
+		this.permits = new Semaphore(concurrency, true);
+		this.maxRequestBytes = maxRequestBytes;
+		// Waiting requests are cheap on virtual threads; the semaphore bounds the actual work
+		this.executor = Executors.newVirtualThreadPerTaskExecutor();
+
+		server = HttpServer.create(address, 0);
+		server.setExecutor(executor);
+		server.createContext("/health", this::health);
+		server.createContext("/impose", this::impose);
+	}
+
+	/**
+	 * Start accepting requests.
+	 */
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Stop accepting requests, waiting up to <code>delay</code> seconds for those in progress to finish.
+	 *
+	 * @param delay
+	 *          The maximum time to wait, in seconds.
+	 */
+	public void stop(int delay) {
+		server.stop(delay);
+		executor.shutdown();
+	}
+
+	/**
+	 * Returns the address the server is listening on.
+	 *
+	 * @return The bound address, including the actual port if it was started on port 0.
+	 */
+	public InetSocketAddress getAddress() {
+		return server.getAddress();
+	}
+
+	private void health(HttpExchange exchange) throws IOException {
+		if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+			sendText(exchange, 405, "Method Not Allowed");
+			return;
+		}
+
+		sendText(exchange, 200, "OK");
+	}
+
+	private void impose(HttpExchange exchange) throws IOException {
+		if (!"POST".equals(exchange.getRequestMethod())) {
+			sendText(exchange, 405, "Method Not Allowed");
+			return;
+		}
+
+		String length = exchange.getRequestHeaders().getFirst("Content-Length");
+		if (length != null) {
+			long declared;
+			try {
+				declared = Long.parseLong(length.trim());
+			} catch (NumberFormatException e) {
+				declared = -1;
+			}
+			if (declared < 0) {
+				sendText(exchange, 400, "Invalid Content-Length: " + length);
+				return;
+			}
+			if (declared > maxRequestBytes) {
+				sendText(exchange, 413, "Request exceeds " + maxRequestBytes + " bytes");
+				return;
+			}
+		}
+
+		// Before reading the body, so that no more than the permitted number of uploads are held in memory
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			sendText(exchange, 503, "Server shutting down");
+			return;
+		}
+
+		try {
+			byte[] body = readBody(exchange.getRequestBody());
+			if (body == null) {
+				sendText(exchange, 413, "Request exceeds " + maxRequestBytes + " bytes");
+				return;
+			}
+
+			PdfDocument in;
+			try {
+				in = new PdfDocument(new PdfReader(new ByteArrayInputStream(body)));
+			} catch (IOException | ITextException e) {
+				sendText(exchange, 400, "Unreadable PDF: " + e.getMessage());
+				return;
+			}
+
+			if (in.getNumberOfPages() == 0) {
+				in.close();
+				sendText(exchange, 400, "PDF has no pages");
+				return;
+			}
+
+			// Buffered, so that a failure part way through can still be reported with an error status
+			ByteArrayOutputStream booklet = new ByteArrayOutputStream();
+			try {
+				PdfDocument out = new PdfDocument(new PdfWriter(booklet));
+				FourUpBookletStrategy strategy = new FourUpBookletStrategy(in, out);
+				strategy.setImpositionListener(impositionListener);
+
+				if (hasParameter(exchange.getRequestURI(), "skipInstructions"))
+					strategy.disableInstructions();
+				strategy.impose();
+			} catch (IOException | RuntimeException e) {
+				in.close();
+				if (e instanceof ITextException)
+					sendText(exchange, 400, "Unreadable PDF: " + e.getMessage());
+				else
+					sendText(exchange, 500, "Imposition failed: " + e);
+				return;
+			}
+
+			exchange.getResponseHeaders().set("Content-Type", "application/pdf");
+			exchange.sendResponseHeaders(200, booklet.size());
+			try (OutputStream response = exchange.getResponseBody()) {
+				booklet.writeTo(response);
+			}
+		} finally {
+			permits.release();
+			exchange.close();
+		}
+	}
+
+	// Returns null if the body is larger than maxRequestBytes
+	private byte[] readBody(InputStream stream) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		byte[] buffer = new byte[64 * 1024];
+		int read;
+
+		while ((read = stream.read(buffer)) != -1) {
+			if (body.size() + read > maxRequestBytes)
+				return null;
+			body.write(buffer, 0, read);
+		}
+
+		return body.toByteArray();
+	}
+
+	private static boolean hasParameter(URI uri, String name) {
+		String query = uri.getRawQuery();
+		if (query == null)
+			return false;
+
+		for (String parameter : query.split("&")) {
+			if (parameter.equals(name) || parameter.startsWith(name + "="))
+				return true;
+		}
+		return false;
+	}
+
+	private static void sendText(HttpExchange exchange, int status, String message) throws IOException {
+		byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		if ("HEAD".equals(exchange.getRequestMethod())) {
+			exchange.sendResponseHeaders(status, -1);
+		} else {
+			exchange.sendResponseHeaders(status, bytes.length);
+			try (OutputStream body = exchange.getResponseBody()) {
+				body.write(bytes);
+			}
+		}
+		exchange.close();
+	}
+
+	/**
+	 * @param args
+	 *          Options: <code>[-]-port N</code> (default 8080), <code>[-]-concurrency N</code> (default: the number of
+	 *          available processors) and <code>[-]-maxRequestSize BYTES</code> (default 256MiB).
+	 * @throws IOException
+	 *           if the server cannot bind to its port.
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = DEFAULT_PORT;
+		int concurrency = Runtime.getRuntime().availableProcessors();
+		long maxRequestBytes = DEFAULT_MAX_REQUEST_BYTES;
+
+		for (int next = 0; next < args.length; next++) {
+			String option = args[next];
+
+			// .endsWith so that single or double dash is correct
+			if (option.endsWith("-port") && next + 1 < args.length) {
+				port = Integer.parseInt(args[++next]);
+			} else if (option.endsWith("-concurrency") && next + 1 < args.length) {
+				concurrency = Integer.parseInt(args[++next]);
+			} else if (option.endsWith("-maxRequestSize") && next + 1 < args.length) {
+				maxRequestBytes = Long.parseLong(args[++next]);
+			} else {
+				System.err.println("Unknown option: " + option);
+				System.err.println("Usage: java -jar booklet-builder-all.jar --server [--port N] [--concurrency N] "
+				    + "[--maxRequestSize BYTES]");
+				System.exit(2);
+			}
+		}
+
+		BookletServer server = new BookletServer(new InetSocketAddress(port), concurrency, maxRequestBytes);
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(5)));
+		server.start();
+		System.err.println("BookletBuilder listening on " + server.getAddress());
+	}
+}
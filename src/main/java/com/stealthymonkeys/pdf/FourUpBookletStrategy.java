@@ -15,6 +15,7 @@ package com.stealthymonkeys.pdf;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.List;
 
 import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.pdf.PdfDocument;
@@ -23,19 +24,22 @@ import com.itextpdf.kernel.pdf.PdfWriter;
 
 /**
  * <p>
- * A Strategy that produces a 4-up, booklet ordered PDF from a source PDF.
+ * A Strategy that produces a 4-up, booklet ordered PDF from a source PDF, or from several source PDFs in sequence.
  * </p>
  *
  * <p>
- * Uses {@link FourUpImposer} and {@link BookletPageNumberCollection}.
+ * Uses {@link FourUpImposer} and {@link BookletPageNumberCollection}. With {@link #setCopiesPerSheet(int) two copies
+ * per sheet} it uses {@link SaddleStitchPageNumberCollection} instead, and when printed in
+ * {@link #setSheetsPerSignature(int) signatures}, {@link SignaturePageNumberCollection}.
  * </p>
  *
  * @author Erik Ogan
  *
  */
 public class FourUpBookletStrategy extends AbstractImpositionStrategy {
-	private NupImposer				imposer	= null;
-	private Iterable<Integer>	pages		= null;
+	private NupImposer					imposer							= null;
+	private PageNumberSequence	pages								= null;
+	private int									sheetsPerSignature	= 0;
 
 	/**
 	 * Create a strategy that will read pages from the PDF file <code>inFile</code>, and write a new PDF booklet to
@@ -101,11 +105,69 @@ public class FourUpBookletStrategy extends AbstractImpositionStrategy {
 		finishBuild();
 	}
 
+	/**
+	 * Create a strategy that will read pages from each PDF document in <code>in</code>, in order, as though they were a
+	 * single document, and write a new PDF booklet to <code>out</code>. For example, a cover, a body and an appendix.
+	 *
+	 * @param in
+	 *          Readable PdfDocuments from which to read pages to impose. There must be at least one.
+	 * @param out
+	 *          Writable PdfDocument to which to write imposed pages.
+	 */
+	public FourUpBookletStrategy(List<PdfDocument> in, PdfDocument out) {
+		super(in, out);
+		finishBuild();
+	}
+
 	private void finishBuild() {
-		pages = new BookletPageNumberCollection(in.getNumberOfPages());
 		imposer = new FourUpImposer(getPageSize());
 	}
 
+	/**
+	 * Print the booklet in signatures of <code>sheets</code> sheets each, rather than as a single signature. Each
+	 * signature is ordered, cut and folded as a booklet of its own, and the folded signatures are gathered in order for
+	 * binding. Signatures only apply with one copy per sheet.
+	 *
+	 * @param sheets
+	 *          The number of sheets in each signature.
+	 * @throws IllegalArgumentException
+	 *           if more than one copy per sheet has been set.
+	 * @see SignaturePageNumberCollection
+	 */
+	public void setSheetsPerSignature(int sheets) {
+		if (getCopiesPerSheet() > 1)
+			throw new IllegalArgumentException(
+			    "Signatures cannot be combined with " + getCopiesPerSheet() + " copies per sheet");
+
+		pages = new SignaturePageNumberCollection(getSourcePageCount(), sheets);
+		sheetsPerSignature = sheets;
+	}
+
+	/**
+	 * Signatures only apply with one copy per sheet, so more than one copy cannot be combined with them.
+	 *
+	 * @throws IllegalArgumentException
+	 *           if <code>copies</code> is more than one and {@link #setSheetsPerSignature(int) signatures} have been set.
+	 * @see com.stealthymonkeys.pdf.AbstractImpositionStrategy#setCopiesPerSheet(int)
+	 */
+	@Override
+	public void setCopiesPerSheet(int copies) {
+		if (copies > 1 && sheetsPerSignature > 0)
+			throw new IllegalArgumentException("Signatures cannot be combined with " + copies + " copies per sheet");
+
+		super.setCopiesPerSheet(copies);
+	}
+
+	/**
+	 * Each sheet is two output pages, front and back.
+	 *
+	 * @see com.stealthymonkeys.pdf.AbstractImpositionStrategy#getOutputPagesPerSignature()
+	 */
+	@Override
+	public int getOutputPagesPerSignature() {
+		return getCopiesPerSheet() == 1 ? sheetsPerSignature * 2 : 0;
+	}
+
 	private Rectangle getPageSize() {
 		// So it turns out this is not the default page size for the document but a global default (of A4)
 		// return in.getDefaultPageSize();
@@ -113,9 +175,25 @@ public class FourUpBookletStrategy extends AbstractImpositionStrategy {
 		return in.getFirstPage().getPageSize();
 	}
 
+	/**
+	 * With one copy per sheet this is the 4-up booklet order. Two copies are a 2-up saddle-stitched booklet in each row,
+	 * and four copies repeat every page in all four positions.
+	 *
+	 * @see com.stealthymonkeys.pdf.AbstractImpositionStrategy#getPageNumberIterable()
+	 */
 	@Override
 	protected Iterable<Integer> getPageNumberIterable() {
-		return pages;
+		switch (getCopiesPerSheet()) {
+		case 2:
+			return new SaddleStitchPageNumberCollection(getSourcePageCount());
+		case 4:
+			return PageNumberSequence.sequential(getSourcePageCount());
+		default:
+			// Built here rather than in the constructor, which should not call out to the superclass
+			if (pages == null)
+				pages = new BookletPageNumberCollection(getSourcePageCount());
+			return pages;
+		}
 	}
 
 	@Override
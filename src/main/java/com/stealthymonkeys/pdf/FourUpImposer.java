@@ -70,6 +70,26 @@ public class FourUpImposer implements NupImposer {
 		return pageSize;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.stealthymonkeys.pdf.NupImposer#getSlotCount()
+	 */
+	@Override
+	public int getSlotCount() {
+		return positions.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.stealthymonkeys.pdf.NupImposer#getPosition(int)
+	 */
+	@Override
+	public Point getPosition(int slot) {
+		return positions.get(slot);
+	}
+
 	/**
 	 * An iterator specifying where on the output age a given imposed page should be placed.
 	 *
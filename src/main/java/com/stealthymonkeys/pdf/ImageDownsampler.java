@@ -0,0 +1,322 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import com.itextpdf.kernel.geom.Matrix;
+import com.itextpdf.kernel.pdf.CompressionConstants;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfBoolean;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.canvas.parser.EventType;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfCanvasProcessor;
+import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
+import com.itextpdf.kernel.pdf.canvas.parser.data.ImageRenderInfo;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+
+/**
+ * <p>
+ * Resamples raster images in copied pages down to a target resolution, as they will be printed after imposition, and
+ * recompresses them as JPEG.
+ * </p>
+ *
+ * <p>
+ * The effective resolution of each image is worked out from where the page's content stream draws it, multiplied by
+ * the imposition's scale factor. Only 8-bit RGB and grayscale images without masks are resampled, and only when the
+ * result is smaller than the original; anything else is left as it is. An image shared by several pages is resampled
+ * once, at the resolution needed by the largest of its placements on the pages in {@link #setScope(int[], IntFunction)
+ * scope}. Finding those means parsing the content of every page in scope once, when the first of them is processed.
+ * Strategies set the scope to the selected output pages, or to each signature in turn.
+ * </p>
+ *
+ * <p>
+ * Each copy in the output is resampled separately, so a shared image copied again after a streaming flush is resampled
+ * again.
+ * </p>
+ *
+ * <p>
+ * A downsampler keeps running totals, so use one per imposition job.
+ * </p>
+ *
+ * @author Erik Ogan
+ *
+ */
+public class ImageDownsampler {
+	/**
+	 * The default JPEG quality, between 0 and 1.
+	 */
+	public static final float DEFAULT_QUALITY = 0.85f;
+
+	// Don't bother with images that are within this factor of the target resolution
+	private static final double THRESHOLD = 1.1;
+
+	private final double	targetDpi;
+	private final float		quality;
+
+	// Copies in the output already resampled, or left alone
+	private final Set<PdfIndirectReference> processed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	// The largest width and height each source image is drawn at in scope, in points, and the images each page draws
+	private final Map<PdfIndirectReference, double[]>										largest	= new IdentityHashMap<>();
+	private final Map<PdfIndirectReference, Set<PdfIndirectReference>>	drawn		= new IdentityHashMap<>();
+
+	// Read on the next call to process()
+	private int[]									scope				= null;
+	private IntFunction<PdfPage>	scopePages	= null;
+
+	private int		imagesResampled	= 0;
+	private long	bytesSaved			= 0;
+
+	/**
+	 * @param targetDpi
+	 *          The highest resolution, in dots per inch on the printed page, worth keeping.
+	 */
+	public ImageDownsampler(double targetDpi) {
+		this(targetDpi, DEFAULT_QUALITY);
+	}
+
+	/**
+	 * @param targetDpi
+	 *          The highest resolution, in dots per inch on the printed page, worth keeping.
+	 * @param quality
+	 *          The JPEG quality of resampled images, between 0 and 1.
+	 */
+	public ImageDownsampler(double targetDpi, float quality) {
+		if (targetDpi <= 0)
+			throw new IllegalArgumentException("Target DPI must be positive: " + targetDpi);
+		if (quality <= 0 || quality > 1)
+			throw new IllegalArgumentException("JPEG quality must be between 0 and 1: " + quality);
+
+		this.targetDpi = targetDpi;
+		this.quality = quality;
+	}
+
+	/**
+	 * Sets the source pages to look over for each image's largest placement. They are not read until the next call to
+	 * {@link #process(PdfPage, PdfDocument, double) process()}, and replace any previous scope. Without a scope, each
+	 * page is looked over as it is processed.
+	 *
+	 * @param pageNumbers
+	 *          The source pages the imposition will place next.
+	 * @param pages
+	 *          Finds a source page by its number.
+	 */
+	public void setScope(int[] pageNumbers, IntFunction<PdfPage> pages) {
+		scope = pageNumbers.clone();
+		scopePages = pages;
+	}
+
+	/**
+	 * Resamples the images drawn by a source page, in the copy of the page already made in the output document.
+	 *
+	 * @param sourcePage
+	 *          The source page, which must still be readable.
+	 * @param out
+	 *          The output document into which the page has been copied.
+	 * @param scale
+	 *          The factor by which the imposition scales the page.
+	 * @throws IOException
+	 *           if an image cannot be decoded or encoded.
+	 */
+	public void process(PdfPage sourcePage, PdfDocument out, double scale) throws IOException {
+		if (scope != null) {
+			largest.clear();
+			drawn.clear();
+			for (int pageNumber : scope) {
+				findPlacements(scopePages.apply(pageNumber));
+			}
+			scope = null;
+			scopePages = null;
+		}
+
+		Set<PdfIndirectReference> images = drawn.get(sourcePage.getPdfObject().getIndirectReference());
+		if (images == null)
+			images = findPlacements(sourcePage);
+
+		for (PdfIndirectReference image : images) {
+			// Already copied with the page, so this finds that copy rather than making another
+			PdfStream copy = (PdfStream) image.getRefersTo().copyTo(out, false);
+			if (!processed.add(copy.getIndirectReference()))
+				continue;
+
+			double[] size = largest.get(image);
+			resample(copy, (int) Math.ceil(size[0] * scale / 72 * targetDpi),
+			    (int) Math.ceil(size[1] * scale / 72 * targetDpi));
+		}
+	}
+
+	/**
+	 * @return The number of images replaced with lower-resolution copies so far.
+	 */
+	public int getImagesResampled() {
+		return imagesResampled;
+	}
+
+	/**
+	 * @return The number of bytes of image data saved so far.
+	 */
+	public long getBytesSaved() {
+		return bytesSaved;
+	}
+
+	private void resample(PdfStream stream, int targetWidth, int targetHeight) throws IOException {
+		PdfNumber width = stream.getAsNumber(PdfName.Width);
+		PdfNumber height = stream.getAsNumber(PdfName.Height);
+
+		if (width == null || height == null || !isResampleable(stream))
+			return;
+		if (width.intValue() <= targetWidth * THRESHOLD && height.intValue() <= targetHeight * THRESHOLD)
+			return;
+
+		int newWidth = Math.max(1, Math.min(width.intValue(), targetWidth));
+		int newHeight = Math.max(1, Math.min(height.intValue(), targetHeight));
+		boolean gray = PdfName.DeviceGray.equals(stream.getAsName(PdfName.ColorSpace));
+
+		BufferedImage original = new PdfImageXObject(stream).getBufferedImage();
+		if (original == null)
+			return;
+
+		BufferedImage scaled = new BufferedImage(newWidth, newHeight,
+		    gray ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = scaled.createGraphics();
+		graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		graphics.drawImage(original, 0, 0, newWidth, newHeight, null);
+		graphics.dispose();
+		// The JPEG has no /Decode, so its samples must already be decoded
+		applyDecode(scaled.getRaster(), stream.getAsArray(PdfName.Decode));
+
+		byte[] jpeg = encodeJpeg(scaled);
+		int originalLength = stream.getBytes(false).length;
+		if (jpeg.length >= originalLength)
+			return;
+
+		stream.setData(jpeg);
+		// Already compressed, so the writer should not deflate it again
+		stream.setCompressionLevel(CompressionConstants.NO_COMPRESSION);
+		stream.put(PdfName.Filter, PdfName.DCTDecode);
+		stream.remove(PdfName.DecodeParms);
+		stream.remove(PdfName.Decode);
+		stream.put(PdfName.Width, new PdfNumber(newWidth));
+		stream.put(PdfName.Height, new PdfNumber(newHeight));
+		stream.put(PdfName.BitsPerComponent, new PdfNumber(8));
+
+		imagesResampled++;
+		bytesSaved += originalLength - jpeg.length;
+	}
+
+	private static void applyDecode(WritableRaster raster, PdfArray decode) {
+		if (decode == null || decode.size() < raster.getNumBands() * 2)
+			return;
+
+		int[][] lookup = new int[raster.getNumBands()][256];
+		for (int band = 0; band < lookup.length; band++) {
+			double min = decode.getAsNumber(band * 2).doubleValue();
+			double max = decode.getAsNumber(band * 2 + 1).doubleValue();
+			for (int sample = 0; sample < 256; sample++) {
+				double value = 255 * (min + sample * (max - min) / 255);
+				lookup[band][sample] = (int) Math.round(Math.max(0, Math.min(255, value)));
+			}
+		}
+
+		int[] pixel = new int[lookup.length];
+		for (int y = 0; y < raster.getHeight(); y++) {
+			for (int x = 0; x < raster.getWidth(); x++) {
+				raster.getPixel(x, y, pixel);
+				for (int band = 0; band < pixel.length; band++) {
+					pixel[band] = lookup[band][pixel[band]];
+				}
+				raster.setPixel(x, y, pixel);
+			}
+		}
+	}
+
+	private static boolean isResampleable(PdfStream stream) {
+		PdfName colorSpace = stream.getAsName(PdfName.ColorSpace);
+		PdfNumber bits = stream.getAsNumber(PdfName.BitsPerComponent);
+		PdfBoolean imageMask = stream.getAsBoolean(PdfName.ImageMask);
+
+		return (PdfName.DeviceRGB.equals(colorSpace) || PdfName.DeviceGray.equals(colorSpace)) && bits != null
+		    && bits.intValue() == 8 && (imageMask == null || !imageMask.getValue()) && !stream.containsKey(PdfName.SMask)
+		    && !stream.containsKey(PdfName.Mask) && !stream.containsKey(PdfName.SMaskInData);
+	}
+
+	private byte[] encodeJpeg(BufferedImage image) throws IOException {
+		ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+		ImageWriteParam parameters = writer.getDefaultWriteParam();
+		parameters.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+		parameters.setCompressionQuality(quality);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+			writer.setOutput(output);
+			writer.write(null, new IIOImage(image, null, null), parameters);
+		} finally {
+			writer.dispose();
+		}
+
+		return bytes.toByteArray();
+	}
+
+	// Records where a page draws each of its images, and returns them
+	private Set<PdfIndirectReference> findPlacements(PdfPage page) {
+		Set<PdfIndirectReference> images = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		new PdfCanvasProcessor(new IEventListener() {
+			@Override
+			public void eventOccurred(IEventData data, EventType type) {
+				ImageRenderInfo info = (ImageRenderInfo) data;
+				if (info.isInline())
+					return;
+
+				PdfIndirectReference image = info.getImage().getPdfObject().getIndirectReference();
+				// The image's unit square is drawn at the size of the CTM's axes, in points
+				Matrix ctm = info.getImageCtm();
+				double[] size = largest.computeIfAbsent(image, r -> new double[2]);
+				size[0] = Math.max(size[0], Math.hypot(ctm.get(Matrix.I11), ctm.get(Matrix.I12)));
+				size[1] = Math.max(size[1], Math.hypot(ctm.get(Matrix.I21), ctm.get(Matrix.I22)));
+				images.add(image);
+			}
+
+			@Override
+			public Set<EventType> getSupportedEvents() {
+				return Collections.singleton(EventType.RENDER_IMAGE);
+			}
+		}).processPageContent(page);
+
+		drawn.put(page.getPdfObject().getIndirectReference(), images);
+		return images;
+	}
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event covering one complete {@link AbstractImpositionStrategy#impose()} call. Disabled unless
+ * enabled by a recording's settings, such as the <code>jfr/bookletbuilder.jfc</code> profile in the JAR.
+ *
+ * @author Erik Ogan
+ *
+ */
+@Name("com.stealthymonkeys.pdf.ImpositionJob")
+@Label("Imposition Job")
+@Category("BookletBuilder")
+@Description("Imposition of a source document into a booklet")
+@Enabled(false)
+@StackTrace(false)
+class ImpositionJobEvent extends Event {
+	@Label("Strategy")
+	String strategy;
+
+	@Label("Input Pages")
+	int inputPages;
+
+	@Label("Output Pages")
+	@Description("Imposed output pages, not counting instruction pages")
+	int outputPages;
+
+	@Label("Instruction Pages")
+	int instructionPages;
+
+	@Label("Bytes Written")
+	@DataAmount
+	long bytesWritten;
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+/**
+ * <p>
+ * Receives timings and progress from {@link AbstractImpositionStrategy#impose()}. All methods default to doing nothing,
+ * so implementations need only override what they are interested in.
+ * </p>
+ *
+ * <p>
+ * Callbacks are made on the imposing thread. When no listener is set, the strategy takes no timings at all.
+ * </p>
+ *
+ * @author Erik Ogan
+ *
+ */
+public interface ImpositionListener {
+	/**
+	 * A listener that ignores everything. This is the default.
+	 */
+	ImpositionListener NONE = new ImpositionListener() {
+	};
+
+	/**
+	 * Called when the imposition begins, before any pages are copied.
+	 */
+	default void impositionStarted() {
+	}
+
+	/**
+	 * Called each time a phase of work completes.
+	 *
+	 * @param phase
+	 *          The phase that completed
+	 * @param nanos
+	 *          How long it took, in nanoseconds.
+	 */
+	default void phaseCompleted(ImpositionPhase phase, long nanos) {
+	}
+
+	/**
+	 * Called when every position on an output page has been filled.
+	 *
+	 * @param outputPage
+	 *          The 1-based number of the imposed page, not counting instruction pages.
+	 */
+	default void pageEmitted(int outputPage) {
+	}
+
+	/**
+	 * Called once both documents have been closed.
+	 *
+	 * @param bytesWritten
+	 *          The size of the output, in bytes, or -1 if it is unknown.
+	 */
+	default void impositionCompleted(long bytesWritten) {
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event covering the imposition of one output page: fetching, copying and drawing each of its
+ * source pages, and flushing it in streaming mode.
+ *
+ * @author Erik Ogan
+ *
+ */
+@Name("com.stealthymonkeys.pdf.ImpositionPage")
+@Label("Imposed Page")
+@Category("BookletBuilder")
+@Description("Imposition of a single output page")
+@Enabled(false)
+@StackTrace(false)
+class ImpositionPageEvent extends Event {
+	@Label("Output Page")
+	int outputPage;
+
+	@Label("Source Pages")
+	@Description("Non-blank source pages imposed on the output page")
+	int sourcePages;
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+/**
+ * The phases of an imposition job reported to an {@link ImpositionListener}.
+ *
+ * @author Erik Ogan
+ *
+ */
+public enum ImpositionPhase {
+	/**
+	 * Opening the source and destination documents. Reported by the caller, since it happens before the strategy exists.
+	 */
+	OPEN,
+
+	/**
+	 * Copying instruction pages into the output.
+	 */
+	INSTRUCTIONS,
+
+	/**
+	 * Fetching a source page, with {@link AbstractImpositionStrategy#getSourcePage(int) getSourcePage}.
+	 */
+	SOURCE_PAGE,
+
+	/**
+	 * Copying a source page into the output, with {@link AbstractImpositionStrategy#getCopiedPage getCopiedPage}.
+	 */
+	COPY,
+
+	/**
+	 * Drawing a copied page onto an output page, with {@link AbstractImpositionStrategy#imposePage imposePage}.
+	 */
+	IMPOSE,
+
+	/**
+	 * Writing a completed output page in streaming mode.
+	 */
+	FLUSH,
+
+	/**
+	 * Closing the documents, which serializes everything not yet written.
+	 */
+	CLOSE
+}
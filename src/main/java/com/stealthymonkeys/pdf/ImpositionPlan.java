@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.util.Locale;
+
+import com.itextpdf.kernel.geom.Rectangle;
+
+/**
+ * A summary of what an imposition will produce, worked out from the source document's page tree alone. See
+ * {@link AbstractImpositionStrategy#getPlan()}.
+ *
+ * @author Erik Ogan
+ *
+ */
+public class ImpositionPlan {
+	private final String		strategy;
+	private final int				sourcePages;
+	private final int				blankPages;
+	private final int				slotsPerPage;
+	private final int				outputPages;
+	private final int				instructionPages;
+	private final Rectangle	sourcePageSize;
+	private final boolean		uniformPageSizes;
+	private final Rectangle	outputPageSize;
+
+	ImpositionPlan(String strategy, int sourcePages, int blankPages, int slotsPerPage, int outputPages,
+	    int instructionPages, Rectangle sourcePageSize, boolean uniformPageSizes, Rectangle outputPageSize) {
+		this.strategy = strategy;
+		this.sourcePages = sourcePages;
+		this.blankPages = blankPages;
+		this.slotsPerPage = slotsPerPage;
+		this.outputPages = outputPages;
+		this.instructionPages = instructionPages;
+		this.sourcePageSize = sourcePageSize;
+		this.uniformPageSizes = uniformPageSizes;
+		this.outputPageSize = outputPageSize;
+	}
+
+	/**
+	 * @return The name of the imposition strategy.
+	 */
+	public String getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * @return The number of pages in the source document.
+	 */
+	public int getSourcePages() {
+		return sourcePages;
+	}
+
+	/**
+	 * @return The number of blank pages added to fill out the last sheets.
+	 */
+	public int getBlankPages() {
+		return blankPages;
+	}
+
+	/**
+	 * @return The number of source pages imposed on each output page.
+	 */
+	public int getSlotsPerPage() {
+		return slotsPerPage;
+	}
+
+	/**
+	 * @return The number of imposed output pages, not counting instruction pages.
+	 */
+	public int getOutputPages() {
+		return outputPages;
+	}
+
+	/**
+	 * @return The number of instruction pages at the start of the output.
+	 */
+	public int getInstructionPages() {
+		return instructionPages;
+	}
+
+	/**
+	 * @return The number of duplex sheets needed to print the imposed pages, two output pages to a sheet.
+	 */
+	public int getSheets() {
+		return (outputPages + 1) / 2;
+	}
+
+	/**
+	 * @return The size of the first source page, which the strategy takes as indicative of the whole document.
+	 */
+	public Rectangle getSourcePageSize() {
+		return sourcePageSize;
+	}
+
+	/**
+	 * @return Whether every source page is the same size as the first.
+	 */
+	public boolean hasUniformPageSizes() {
+		return uniformPageSizes;
+	}
+
+	/**
+	 * @return The size of each imposed output page.
+	 */
+	public Rectangle getOutputPageSize() {
+		return outputPageSize;
+	}
+
+	/**
+	 * @return This plan as a JSON object.
+	 */
+	public String toJson() {
+		return String.format(Locale.ROOT,
+		    "{\"strategy\":%s,\"sourcePages\":%d,\"blankPages\":%d,\"slotsPerPage\":%d,\"outputPages\":%d,"
+		        + "\"instructionPages\":%d,\"sheets\":%d,\"sourcePageSize\":%s,\"uniformPageSizes\":%b,"
+		        + "\"outputPageSize\":%s}",
+		    quote(strategy), sourcePages, blankPages, slotsPerPage, outputPages, instructionPages, getSheets(),
+		    toJson(sourcePageSize), uniformPageSizes, toJson(outputPageSize));
+	}
+
+	@Override
+	public String toString() {
+		return toJson();
+	}
+
+	private static String quote(String value) {
+		StringBuilder quoted = new StringBuilder("\"");
+
+		for (char c : value.toCharArray()) {
+			if (c == '"' || c == '\\')
+				quoted.append('\\').append(c);
+			else if (c < 0x20)
+				quoted.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+			else
+				quoted.append(c);
+		}
+		return quoted.append('"').toString();
+	}
+
+	private static String toJson(Rectangle size) {
+		return String.format(Locale.ROOT, "{\"width\":%s,\"height\":%s}", size.getWidth(), size.getHeight());
+	}
+}
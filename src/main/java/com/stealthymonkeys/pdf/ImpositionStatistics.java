@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+/**
+ * An {@link ImpositionListener} that accumulates per-phase timings and throughput for a single job.
+ *
+ * @author Erik Ogan
+ *
+ */
+public class ImpositionStatistics implements ImpositionListener {
+	private final long[]	phaseNanos	= new long[ImpositionPhase.values().length];
+	private final int[]		phaseCounts	= new int[ImpositionPhase.values().length];
+
+	private long	started				= 0;
+	private long	elapsedNanos	= 0;
+	private int		outputPages		= 0;
+	private long	bytesWritten	= -1;
+
+	@Override
+	public void impositionStarted() {
+		started = System.nanoTime();
+	}
+
+	@Override
+	public void phaseCompleted(ImpositionPhase phase, long nanos) {
+		phaseNanos[phase.ordinal()] += nanos;
+		phaseCounts[phase.ordinal()]++;
+	}
+
+	@Override
+	public void pageEmitted(int outputPage) {
+		outputPages++;
+	}
+
+	@Override
+	public void impositionCompleted(long bytesWritten) {
+		this.bytesWritten = bytesWritten;
+		elapsedNanos = System.nanoTime() - started;
+	}
+
+	/**
+	 * @param phase
+	 *          A phase of the imposition
+	 * @return The total time spent in <code>phase</code>, in nanoseconds.
+	 */
+	public long getNanos(ImpositionPhase phase) {
+		return phaseNanos[phase.ordinal()];
+	}
+
+	/**
+	 * @return The number of source pages copied into the output.
+	 */
+	public int getSourcePages() {
+		return phaseCounts[ImpositionPhase.COPY.ordinal()];
+	}
+
+	/**
+	 * @return The number of imposed output pages, not counting instruction pages.
+	 */
+	public int getOutputPages() {
+		return outputPages;
+	}
+
+	/**
+	 * @return The size of the output in bytes, or -1 if it is unknown.
+	 */
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	/**
+	 * @return The wall-clock time from the start of the imposition to closing the documents, in nanoseconds. Does not
+	 *         include {@link ImpositionPhase#OPEN}.
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return Source pages imposed per second of wall-clock time.
+	 */
+	public double getPagesPerSecond() {
+		if (elapsedNanos == 0)
+			return 0.0;
+		return getSourcePages() / (elapsedNanos / 1e9);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder summary = new StringBuilder();
+		summary.append(String.format("Imposed %d source pages onto %d output pages in %.1f ms (%.1f pages/sec), %d bytes",
+		    getSourcePages(), outputPages, elapsedNanos / 1e6, getPagesPerSecond(), bytesWritten));
+
+		for (ImpositionPhase phase : ImpositionPhase.values()) {
+			summary.append(String.format("%n  %-13s %10.1f ms %8d", phase.name().toLowerCase(),
+			    phaseNanos[phase.ordinal()] / 1e6, phaseCounts[phase.ordinal()]));
+		}
+
+		return summary.toString();
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.ReaderProperties;
+
+/**
+ * <p>
+ * How a source PDF file is accessed while it is being imposed.
+ * </p>
+ *
+ * <p>
+ * In every mode objects are only parsed when they are first used. To keep memory bounded for very large inputs,
+ * combine {@link #MAPPED} with {@link AbstractImpositionStrategy#enableStreaming() streaming}, which releases each
+ * source page once it has been imposed.
+ * </p>
+ *
+ * @author Erik Ogan
+ *
+ */
+public enum InputMode {
+	/**
+	 * Memory-map the file, a window at a time for large files. The file contents stay outside the Java heap and are paged
+	 * in by the operating system as pages are read.
+	 */
+	MAPPED,
+
+	/**
+	 * Read the whole file into the Java heap up front. Fastest for small files.
+	 */
+	BUFFERED,
+
+	/**
+	 * Read through a plain <code>RandomAccessFile</code>, without memory mapping. Useful where mapping is unavailable or
+	 * restricted.
+	 */
+	RANDOM_ACCESS;
+
+	/**
+	 * Opens a reader for <code>file</code> using this mode.
+	 *
+	 * @param file
+	 *          The PDF file to read. This file must exist.
+	 * @return A <code>PdfReader</code> for <code>file</code>.
+	 * @throws IOException
+	 *           if <code>file</code> cannot be opened.
+	 */
+	public PdfReader open(File file) throws IOException {
+		RandomAccessSourceFactory factory = new RandomAccessSourceFactory().setForceRead(this == BUFFERED)
+		    .setUsePlainRandomAccess(this == RANDOM_ACCESS);
+
+		return new PdfReader(factory.createBestSource(file.getAbsolutePath()), new ReaderProperties());
+	}
+
+	/**
+	 * Looks up a mode by name, ignoring case and underscores, e.g. <code>mapped</code> or <code>randomAccess</code>.
+	 *
+	 * @param name
+	 *          The name of a mode
+	 * @return The matching <code>InputMode</code>.
+	 * @throws IllegalArgumentException
+	 *           if there is no such mode.
+	 */
+	public static InputMode forName(String name) {
+		for (InputMode mode : values()) {
+			if (mode.name().replace("_", "").equalsIgnoreCase(name.replace("_", "")))
+				return mode;
+		}
+		throw new IllegalArgumentException("Unknown input mode: " + name);
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+
+/**
+ * A process-wide cache of instruction PDFs. Each classpath resource is read once and kept as bytes, so that every
+ * imposition after the first only parses a small in-memory document rather than going back to the classpath (often a
+ * compressed JAR entry).
+ *
+ * @author Erik Ogan
+ *
+ */
+final class InstructionCache {
+	private static final Map<String, byte[]> resources = new ConcurrentHashMap<>();
+
+	private InstructionCache() {
+	}
+
+	/**
+	 * Opens a readable document for a named instruction resource. The caller is responsible for closing it.
+	 *
+	 * @param name
+	 *          The basename of the instruction file to use
+	 * @return A new <code>PdfDocument</code> of the instructions.
+	 * @throws FileNotFoundException
+	 *           if there is no such instruction resource.
+	 * @throws IOException
+	 *           if the resource cannot be read.
+	 */
+	static PdfDocument open(String name) throws FileNotFoundException, IOException {
+		return new PdfDocument(new PdfReader(new ByteArrayInputStream(getBytes(name))));
+	}
+
+	static byte[] getBytes(String name) throws FileNotFoundException, IOException {
+		byte[] bytes = resources.get(name);
+
+		if (bytes == null) {
+			bytes = load(name);
+			// If another thread got here first, the two copies are identical
+			resources.putIfAbsent(name, bytes);
+		}
+
+		return bytes;
+	}
+
+	private static byte[] load(String name) throws FileNotFoundException, IOException {
+		String path = "instructions/" + name + ".pdf";
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+
+		try (InputStream stream = loader.getResourceAsStream(path)) {
+			if (stream == null)
+				throw new FileNotFoundException("Instruction resource not found: " + path);
+			return stream.readAllBytes();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+
+/**
+ * <p>
+ * Imposes one source document into several outputs, e.g. a duplex booklet plus separate fronts and backs for a
+ * printer without duplex. The source is parsed once: every strategy reads from the same open document, so each page's
+ * content, fonts and images are parsed by the first strategy to use them and found already parsed by the rest.
+ * </p>
+ *
+ * <pre>
+ * PdfDocument source = new PdfDocument(new PdfReader(inFile));
+ * MultiOutputImposition job = new MultiOutputImposition(source);
+ *
+ * job.add(new FourUpBookletStrategy(source, new PdfDocument(new PdfWriter(bookletFile))));
+ * FourUpBookletStrategy fronts = new FourUpBookletStrategy(source, new PdfDocument(new PdfWriter(frontsFile)));
+ * fronts.setSheetSides(SheetSides.FRONTS);
+ * job.add(fronts);
+ *
+ * job.impose();
+ * </pre>
+ *
+ * <p>
+ * Each output is still a separate PDF, so every page is copied into each output that uses it.
+ * </p>
+ *
+ * @author Erik Ogan
+ *
+ */
+public class MultiOutputImposition {
+	private final PdfDocument												source;
+	private final List<AbstractImpositionStrategy>	strategies	= new ArrayList<>();
+
+	/**
+	 * @param source
+	 *          Readable PdfDocument from which every output is imposed. It is closed by {@link #impose()}.
+	 */
+	public MultiOutputImposition(PdfDocument source) {
+		this.source = source;
+	}
+
+	/**
+	 * Add an output to the job. The strategy must have been created to read from this job's source document, and
+	 * should be configured before {@link #impose()} is called.
+	 *
+	 * @param strategy
+	 *          The strategy for this output.
+	 */
+	public void add(AbstractImpositionStrategy strategy) {
+		if (strategy.sources.size() != 1 || strategy.sources.get(0) != source)
+			throw new IllegalArgumentException("The strategy must read from this job's source document");
+
+		strategy.shareSources();
+		strategies.add(strategy);
+	}
+
+	/**
+	 * Imposes every output, in the order they were added, then closes the source document. If one output fails, the
+	 * outputs after it are closed without being imposed.
+	 *
+	 * @throws IOException
+	 *           if PDF pages cannot be copied from the source to an output document.
+	 */
+	public void impose() throws IOException {
+		int imposed = 0;
+
+		try {
+			for (; imposed < strategies.size(); imposed++) {
+				strategies.get(imposed).impose();
+			}
+		} finally {
+			// Nothing left over on success; a failed strategy has already closed its own output
+			for (int i = imposed; i < strategies.size(); i++) {
+				strategies.get(i).closeQuietly();
+			}
+			source.close();
+		}
+	}
+}
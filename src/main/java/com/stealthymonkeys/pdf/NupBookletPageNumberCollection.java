@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+/**
+ * This class manages the page ordering for booklets printed n-up, for any even number of pages to a side.
+ *
+ * <p>
+ * Each side is read as pairs of adjacent pages, left to right and top to bottom. After duplex printing the sheets are
+ * cut into 2-up pieces, one per pair, the pieces from each position are stacked in order (first position on top), and
+ * the whole stack is folded in half as a single saddle-stitched booklet. With 4 pages to a side this is the order of
+ * {@link BookletPageNumberCollection}, and with 2 that of {@link SaddleStitchPageNumberCollection}.
+ * </p>
+ *
+ * <p>
+ * Duplex printing mirrors each row, so with more than one pair in a row the pairs on the back of a sheet are in the
+ * opposite order to those on the front, and each piece is backed by its own pages.
+ * </p>
+ *
+ * <strong>Note:</strong> page counts will be padded out to the nearest multiple of twice the pages to a side with blank
+ * pages to correctly impose them.
+ *
+ * @author Erik Ogan
+ *
+ */
+public class NupBookletPageNumberCollection implements PageNumberSequence {
+	private int	pages;
+	private int	slotsPerSide;
+	private int	pairsPerRow;
+	private int	printerExtent;
+
+	/**
+	 * Page Number Constructor, for the grids of {@link TableImposer#forSlots(com.itextpdf.kernel.geom.Rectangle, int)}:
+	 * two pairs to a row with 8 or more pages to a side, otherwise one.
+	 *
+	 * @param pageCount
+	 *          The number of printable pages in the source PDF.
+	 * @param slotsPerSide
+	 *          The number of pages on each side of a sheet. This must be even.
+	 */
+	public NupBookletPageNumberCollection(int pageCount, int slotsPerSide) {
+		this(pageCount, slotsPerSide, slotsPerSide >= 8 ? 2 : 1);
+	}
+
+	/**
+	 * Page Number Constructor
+	 *
+	 * @param pageCount
+	 *          The number of printable pages in the source PDF.
+	 * @param slotsPerSide
+	 *          The number of pages on each side of a sheet. This must be even.
+	 * @param pairsPerRow
+	 *          The number of pairs in each row of a side, as read. This must divide the number of pairs to a side.
+	 */
+	public NupBookletPageNumberCollection(int pageCount, int slotsPerSide, int pairsPerRow) {
+		if (slotsPerSide < 2 || slotsPerSide % 2 != 0)
+			throw new IllegalArgumentException("Pages per side must be even: " + slotsPerSide);
+		if (pairsPerRow < 1 || slotsPerSide / 2 % pairsPerRow != 0)
+			throw new IllegalArgumentException(
+			    pairsPerRow + " pairs to a row do not divide " + slotsPerSide + " pages per side");
+
+		pages = pageCount;
+		this.slotsPerSide = slotsPerSide;
+		this.pairsPerRow = pairsPerRow;
+		printerExtent = (pageCount + 2 * slotsPerSide - 1) / (2 * slotsPerSide) * (2 * slotsPerSide);
+	}
+
+	/**
+	 * Returns the number of slots in the imposition, including the blank pages necessary to pad it out to a multiple of
+	 * twice the pages to a side.
+	 *
+	 * @see com.stealthymonkeys.pdf.PageNumberSequence#size()
+	 */
+	@Override
+	public int size() {
+		return printerExtent;
+	}
+
+	/**
+	 * Computes the page number for a slot in the order it would be laid out in an n-up imposition.
+	 *
+	 * Positive values are returned for pages in the pageCount, negative values are given for blank pages necessary for
+	 * imposition.
+	 *
+	 * @see com.stealthymonkeys.pdf.PageNumberSequence#pageAt(int)
+	 */
+	// As in BookletPageNumberCollection, the pages are first ordered as pairs for a saddle-stitched 2-up booklet. Each
+	// pair position on a side then takes its own run of those pairs, so the cut pieces stack into a single booklet. On the
+	// back of a sheet the pair positions are mirrored within their row, to sit behind the pieces they were cut with.
+	@Override
+	public int pageAt(int slot) {
+		if (slot < 0 || slot >= printerExtent)
+			throw new IndexOutOfBoundsException("Slot " + slot + " out of range for " + printerExtent + " slots");
+
+		int side = slot / slotsPerSide;
+		int position = slot % slotsPerSide;
+		int piece = position / 2;
+		if (side % 2 != 0)
+			piece += pairsPerRow - 1 - 2 * (piece % pairsPerRow);
+		int pair = piece * (printerExtent / (slotsPerSide / 2)) + 2 * side + position % 2;
+
+		return validPage(pairPage(pair));
+	}
+
+	private int pairPage(int index) {
+		int i = index / 2;
+		boolean upperFirst = i % 2 == 0;
+		boolean first = index % 2 == 0;
+
+		return upperFirst == first ? printerExtent - i : i + 1;
+	}
+
+	private int validPage(int page) {
+		if (page > pages)
+			return -page;
+		return page;
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+
+/**
+ * <p>
+ * A Strategy that produces a 2-, 4-, 8- or 16-up, booklet ordered PDF from a source PDF, or from several source PDFs
+ * in sequence. The 2-up and 8-up layouts are read with the sheet turned a quarter turn, so print them duplex flipping
+ * on the short edge.
+ * </p>
+ *
+ * <p>
+ * Uses {@link TableImposer} and {@link NupBookletPageNumberCollection}. Assembly instructions are only included for
+ * 4-up, where they match {@link FourUpBookletStrategy}'s.
+ * </p>
+ *
+ * @author Erik Ogan
+ *
+ */
+public class NupBookletStrategy extends AbstractImpositionStrategy {
+	private NupImposer					imposer	= null;
+	private PageNumberSequence	pages		= null;
+
+	/**
+	 * Create a strategy that will read pages from the PDF document <code>in</code>, and write a new PDF booklet to
+	 * <code>out</code>
+	 *
+	 * @param in
+	 *          Readable PdfDocument from which to read pages to impose.
+	 * @param out
+	 *          Writable PdfDocument to which to write imposed pages.
+	 * @param slotsPerSide
+	 *          The number of pages on each side of a sheet: 2, 4, 8 or 16.
+	 */
+	public NupBookletStrategy(PdfDocument in, PdfDocument out, int slotsPerSide) {
+		this(Collections.singletonList(in), out, slotsPerSide);
+	}
+
+	/**
+	 * Create a strategy that will read pages from each PDF document in <code>in</code>, in order, as though they were a
+	 * single document, and write a new PDF booklet to <code>out</code>.
+	 *
+	 * @param in
+	 *          Readable PdfDocuments from which to read pages to impose. There must be at least one.
+	 * @param out
+	 *          Writable PdfDocument to which to write imposed pages.
+	 * @param slotsPerSide
+	 *          The number of pages on each side of a sheet: 2, 4, 8 or 16.
+	 */
+	public NupBookletStrategy(List<PdfDocument> in, PdfDocument out, int slotsPerSide) {
+		super(in, out);
+		// For now, assume the first page is indicative of the whole document
+		imposer = TableImposer.forSlots(this.in.getFirstPage().getPageSize(), slotsPerSide);
+	}
+
+	@Override
+	protected Iterable<Integer> getPageNumberIterable() {
+		// Built here rather than in the constructor, which should not call out to the superclass
+		if (pages == null)
+			pages = new NupBookletPageNumberCollection(getSourcePageCount(), imposer.getSlotCount());
+		return pages;
+	}
+
+	@Override
+	protected NupImposer getNupImposer() {
+		return imposer;
+	}
+
+	@Override
+	protected PdfDocument getInstructions() throws IOException {
+		if (imposer.getSlotCount() != 4)
+			return null;
+		return getInstructionResource("assembly");
+	}
+}
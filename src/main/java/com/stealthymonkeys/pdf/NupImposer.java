@@ -12,6 +12,8 @@
  */
 package com.stealthymonkeys.pdf;
 
+import java.util.Iterator;
+
 import com.itextpdf.kernel.geom.AffineTransform;
 import com.itextpdf.kernel.geom.Point;
 import com.itextpdf.kernel.geom.Rectangle;
@@ -25,7 +27,8 @@ import com.itextpdf.kernel.geom.Rectangle;
  * orientation, but could be used to scale the size up.
  * <li>A Transformation Matrix, specifying how imposed pages should be scaled.
  * <li>An <code>Iterator</code> of <code>Points</code>, specifying where on the destination page a given imposed page
- * should be placed.
+ * should be placed. The same positions are available by index, as <code>Points</code> or coordinates, with an optional
+ * rotation for each.
  * </ol>
  *
  * @author Erik Ogan
@@ -47,4 +50,73 @@ public interface NupImposer extends Iterable<Point> {
 	 *         original orientation (for example, 2-up), but could be used to scale the size up.
 	 */
 	Rectangle getImposedPageSize();
+
+	/**
+	 * Returns the number of positions on each output page. The default implementation counts the positions given by
+	 * {@link #iterator()}; implementations with a fixed table of positions should override it.
+	 *
+	 * @return The number of positions on each output page.
+	 */
+	default int getSlotCount() {
+		int slots = 0;
+
+		for (Iterator<Point> it = iterator(); it.hasNext(); it.next()) {
+			slots++;
+		}
+
+		return slots;
+	}
+
+	/**
+	 * Returns where on the output page the page imposed in a given position should be placed, in the coordinates of the
+	 * {@link #getTransformMatrix() transformation matrix}. The default implementation walks {@link #iterator()};
+	 * implementations with a fixed table of positions should override it so that nothing is allocated per page.
+	 *
+	 * @param slot
+	 *          The position on the output page (0-based, in the order given by {@link #iterator()})
+	 * @return The location of the imposed page's lower left corner. It must not be modified.
+	 */
+	default Point getPosition(int slot) {
+		Iterator<Point> it = iterator();
+		for (int i = 0; i < slot; i++) {
+			it.next();
+		}
+		return it.next();
+	}
+
+	/**
+	 * Returns the horizontal coordinate of {@link #getPosition(int)}. Implementations with a fixed table of positions
+	 * should override this and {@link #getY(int)} to return it without allocating.
+	 *
+	 * @param slot
+	 *          The position on the output page (0-based)
+	 * @return The x coordinate of the imposed page's lower left corner.
+	 */
+	default double getX(int slot) {
+		return getPosition(slot).getX();
+	}
+
+	/**
+	 * Returns the vertical coordinate of {@link #getPosition(int)}.
+	 *
+	 * @param slot
+	 *          The position on the output page (0-based)
+	 * @return The y coordinate of the imposed page's lower left corner.
+	 * @see #getX(int)
+	 */
+	default double getY(int slot) {
+		return getPosition(slot).getY();
+	}
+
+	/**
+	 * Returns how far the page imposed in a given position is rotated, counter-clockwise. Its rotated bounding box is
+	 * placed at {@link #getPosition(int)}.
+	 *
+	 * @param slot
+	 *          The position on the output page (0-based)
+	 * @return The rotation in degrees: 0, 90, 180 or 270. The default is 0.
+	 */
+	default int getRotation(int slot) {
+		return 0;
+	}
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.OutputStream;
+
+import com.itextpdf.kernel.pdf.CompressionConstants;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+
+/**
+ * <p>
+ * How hard the output writer works to make an imposed booklet small.
+ * </p>
+ *
+ * <p>
+ * Object streams can only be chosen when a <code>PdfWriter</code> is created, so open the writer with
+ * {@link #open(File)}. A strategy writing to it picks the profile up from the writer, and applies the rest (the deflate
+ * level and the recompression of copied streams) itself. For a writer opened some other way, call
+ * {@link AbstractImpositionStrategy#setOutputProfile(OutputProfile)}, which applies all but the object streams.
+ * </p>
+ *
+ * @author Erik Ogan
+ *
+ */
+public enum OutputProfile {
+	/**
+	 * The fastest deflate level, with a plain cross-reference table. For print-shop hot folders, where throughput
+	 * matters more than size.
+	 */
+	FAST(CompressionConstants.BEST_SPEED, false, false),
+
+	/**
+	 * iText's defaults.
+	 */
+	BALANCED(CompressionConstants.DEFAULT_COMPRESSION, false, false),
+
+	/**
+	 * The best deflate level, object streams with a compressed cross-reference stream, and copied streams decoded and
+	 * deflated again at the best level. For archival.
+	 */
+	SMALLEST(CompressionConstants.BEST_COMPRESSION, true, true);
+
+	private final int			compressionLevel;
+	private final boolean	fullCompression;
+	private final boolean	recompressing;
+
+	private OutputProfile(int compressionLevel, boolean fullCompression, boolean recompressing) {
+		this.compressionLevel = compressionLevel;
+		this.fullCompression = fullCompression;
+		this.recompressing = recompressing;
+	}
+
+	/**
+	 * @return The deflate level for streams written by this profile.
+	 */
+	public int getCompressionLevel() {
+		return compressionLevel;
+	}
+
+	/**
+	 * @return Whether copied streams that are already deflated should be decoded and deflated again at this profile's
+	 *         level.
+	 */
+	public boolean isRecompressing() {
+		return recompressing;
+	}
+
+	/**
+	 * @return New writer properties for this profile.
+	 */
+	public WriterProperties getWriterProperties() {
+		return new WriterProperties().setCompressionLevel(compressionLevel).setFullCompressionMode(fullCompression);
+	}
+
+	/**
+	 * Opens a writer for <code>file</code> using this profile.
+	 *
+	 * @param file
+	 *          The PDF file to write. This file will be overwritten.
+	 * @return A <code>PdfWriter</code> for <code>file</code>, carrying this profile.
+	 * @throws FileNotFoundException
+	 *           if <code>file</code> cannot be created.
+	 */
+	public ProfiledWriter open(File file) throws FileNotFoundException {
+		return new ProfiledWriter(file.getPath(), this);
+	}
+
+	/**
+	 * Opens a writer for <code>stream</code> using this profile.
+	 *
+	 * @param stream
+	 *          The stream to which to write the PDF
+	 * @return A <code>PdfWriter</code> for <code>stream</code>, carrying this profile.
+	 */
+	public ProfiledWriter open(OutputStream stream) {
+		return new ProfiledWriter(stream, this);
+	}
+
+	/**
+	 * Looks up a profile by name, ignoring case, e.g. <code>fast</code> or <code>smallest</code>.
+	 *
+	 * @param name
+	 *          The name of a profile
+	 * @return The matching <code>OutputProfile</code>.
+	 * @throws IllegalArgumentException
+	 *           if there is no such profile.
+	 */
+	public static OutputProfile forName(String name) {
+		for (OutputProfile profile : values()) {
+			if (profile.name().equalsIgnoreCase(name))
+				return profile;
+		}
+		throw new IllegalArgumentException("Unknown output profile: " + name);
+	}
+
+	/**
+	 * A <code>PdfWriter</code> opened by {@link OutputProfile#open(File)}, which remembers its profile so that a strategy
+	 * writing to it can apply the rest.
+	 */
+	public static class ProfiledWriter extends PdfWriter {
+		private final OutputProfile profile;
+
+		private ProfiledWriter(String filename, OutputProfile profile) throws FileNotFoundException {
+			super(filename, profile.getWriterProperties());
+			this.profile = profile;
+		}
+
+		private ProfiledWriter(OutputStream stream, OutputProfile profile) {
+			super(stream, profile.getWriterProperties());
+			this.profile = profile;
+		}
+
+		/**
+		 * @return The profile this writer was opened with.
+		 */
+		public OutputProfile getProfile() {
+			return profile;
+		}
+	}
+}
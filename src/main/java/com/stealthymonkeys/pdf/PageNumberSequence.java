@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * <p>
+ * A random-access sequence of source page numbers, in imposition order. Each position in the sequence is a slot on an
+ * output page.
+ * </p>
+ *
+ * <p>
+ * Positive values are pages in the source document, zero or negative values are blank slots.
+ * </p>
+ *
+ * @author Erik Ogan
+ *
+ */
+public interface PageNumberSequence extends Iterable<Integer> {
+	/**
+	 * Returns the number of slots in the sequence, including blanks.
+	 *
+	 * @return The number of slots in the sequence.
+	 */
+	int size();
+
+	/**
+	 * Returns the source page number to impose in a given slot.
+	 *
+	 * @param slot
+	 *          The 0-based slot in imposition order.
+	 * @return The source page number for <code>slot</code>. Zero or negative for a blank slot.
+	 */
+	int pageAt(int slot);
+
+	/**
+	 * Creates an iterator over the page numbers, in imposition order, without boxing them.
+	 *
+	 * @return A <code>PrimitiveIterator.OfInt</code> over the sequence.
+	 */
+	@Override
+	default PrimitiveIterator.OfInt iterator() {
+		return new PrimitiveIterator.OfInt() {
+			private int slot = 0;
+
+			@Override
+			public boolean hasNext() {
+				return slot < size();
+			}
+
+			@Override
+			public int nextInt() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				return pageAt(slot++);
+			}
+		};
+	}
+
+	/**
+	 * Creates a sequence of the pages <code>1</code> to <code>pageCount</code>, in order.
+	 *
+	 * @param pageCount
+	 *          The number of pages
+	 * @return A <code>PageNumberSequence</code> of <code>pageCount</code> pages.
+	 */
+	static PageNumberSequence sequential(int pageCount) {
+		return new PageNumberSequence() {
+			@Override
+			public int size() {
+				return pageCount;
+			}
+
+			@Override
+			public int pageAt(int slot) {
+				return slot + 1;
+			}
+		};
+	}
+
+	/**
+	 * Repeats groups of slots, so that several copies of a smaller layout share each output page. Each output page takes
+	 * the next <code>groupSize</code> slots of <code>pages</code>, <code>copies</code> times over.
+	 *
+	 * @param pages
+	 *          The page numbers for one copy, <code>groupSize</code> slots to a page.
+	 * @param groupSize
+	 *          The number of slots in each copy on an output page
+	 * @param copies
+	 *          The number of copies on each output page
+	 * @return A <code>PageNumberSequence</code> with <code>groupSize * copies</code> slots to a page.
+	 */
+	static PageNumberSequence repeat(PageNumberSequence pages, int groupSize, int copies) {
+		int outputPages = (pages.size() + groupSize - 1) / groupSize;
+
+		return new PageNumberSequence() {
+			@Override
+			public int size() {
+				return outputPages * groupSize * copies;
+			}
+
+			@Override
+			public int pageAt(int slot) {
+				int index = slot / (groupSize * copies) * groupSize + slot % groupSize;
+				return index < pages.size() ? pages.pageAt(index) : 0;
+			}
+		};
+	}
+
+	/**
+	 * Adapts an arbitrary <code>Iterable</code> of page numbers to a <code>PageNumberSequence</code>. If
+	 * <code>pages</code> is already a sequence it is returned as-is, otherwise it is copied. <code>null</code> values
+	 * become blank slots.
+	 *
+	 * @param pages
+	 *          Page numbers in imposition order.
+	 * @return A <code>PageNumberSequence</code> of the same page numbers.
+	 */
+	static PageNumberSequence of(Iterable<Integer> pages) {
+		if (pages instanceof PageNumberSequence)
+			return (PageNumberSequence) pages;
+
+		int count = 0;
+		for (Iterator<Integer> it = pages.iterator(); it.hasNext(); it.next()) {
+			count++;
+		}
+
+		int[] array = new int[count];
+		Iterator<Integer> it = pages.iterator();
+		for (int i = 0; i < count; i++) {
+			Integer page = it.next();
+			array[i] = page == null ? 0 : page.intValue();
+		}
+
+		return new PageNumberSequence() {
+			@Override
+			public int size() {
+				return array.length;
+			}
+
+			@Override
+			public int pageAt(int slot) {
+				return array[slot];
+			}
+		};
+	}
+}
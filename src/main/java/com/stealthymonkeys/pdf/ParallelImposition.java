@@ -0,0 +1,218 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * <p>
+ * Imposes a single booklet using several threads. The output pages are split into contiguous ranges, each range is
+ * imposed by its own worker into a partial document, and the partial documents are then assembled, in order, into the
+ * final output. If the strategy prints in signatures, each signature is its own range.
+ * </p>
+ *
+ * <p>
+ * iText documents are not thread-safe, so every worker opens its own reader on the source file and its own strategy,
+ * created by the supplied factory, e.g.:
+ * </p>
+ *
+ * <pre>
+ * new ParallelImposition(inFile, outFile, FourUpBookletStrategy::new).impose();
+ * </pre>
+ *
+ * @author Erik Ogan
+ *
+ */
+public class ParallelImposition {
+	private File	in;
+	private File	out;
+
+	private BiFunction<PdfDocument, PdfDocument, AbstractImpositionStrategy> factory;
+
+	private int			threads							= Runtime.getRuntime().availableProcessors();
+	private boolean	includeInstructions	= true;
+
+	/**
+	 * @param inFile
+	 *          File representing PDF whose pages will be imposed into a booklet. This file must exist.
+	 * @param outFile
+	 *          The booklet output file. This file will be overwritten.
+	 * @param factory
+	 *          Creates the strategy used by each worker from a readable source and writable destination document.
+	 */
+	public ParallelImposition(File inFile, File outFile,
+	    BiFunction<PdfDocument, PdfDocument, AbstractImpositionStrategy> factory) {
+		this.in = inFile;
+		this.out = outFile;
+		this.factory = factory;
+	}
+
+	/**
+	 * Set the number of worker threads. Defaults to the number of available processors.
+	 *
+	 * @param threads
+	 *          The maximum number of output page ranges to impose concurrently.
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Thread count must be positive: " + threads);
+		this.threads = threads;
+	}
+
+	/**
+	 * Disable the inclusion of instruction pages, if the strategy includes them.
+	 */
+	public void disableInstructions() {
+		includeInstructions = false;
+	}
+
+	/**
+	 * Performs the imposition. The resulting page order is identical to that of the strategy's own
+	 * {@link AbstractImpositionStrategy#impose() impose()} method.
+	 *
+	 * @throws IOException
+	 *           if the source cannot be read, or a partial or final document cannot be written.
+	 */
+	public void impose() throws IOException {
+		List<int[]> ranges = splitOutputPages();
+		List<File> partFiles = new ArrayList<>();
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, ranges.size())));
+
+		try {
+			List<Future<Void>> futures = new ArrayList<>();
+
+			for (int i = 0; i < ranges.size(); i++) {
+				File partFile = File.createTempFile("booklet-part-", ".pdf");
+				int first = ranges.get(i)[0];
+				int last = ranges.get(i)[1];
+				boolean instructions = includeInstructions && i == 0;
+
+				partFiles.add(partFile);
+				futures.add(pool.submit(() -> {
+					imposePart(partFile, first, last, instructions);
+					return null;
+				}));
+			}
+
+			for (Future<Void> future : futures) {
+				await(future);
+			}
+
+			assemble(partFiles);
+		} finally {
+			pool.shutdownNow();
+			for (File partFile : partFiles) {
+				partFile.delete();
+			}
+		}
+	}
+
+	// One range per signature if the strategy has them, so each is imposed and flushed on its own. Otherwise one
+	// contiguous range per thread.
+	private List<int[]> splitOutputPages() throws IOException {
+		PdfDocument source = new PdfDocument(new PdfReader(in));
+		// The destination is never written, and is only needed to satisfy the strategy's constructor
+		PdfDocument discard = new PdfDocument(new PdfWriter(OutputStream.nullOutputStream()));
+		List<int[]> ranges = new ArrayList<>();
+
+		try {
+			AbstractImpositionStrategy strategy = factory.apply(source, discard);
+			int pageCount = strategy.getOutputPageCount();
+			int signaturePages = strategy.getOutputPagesPerSignature();
+
+			if (signaturePages > 0) {
+				for (int first = 1; first <= pageCount; first += signaturePages) {
+					ranges.add(new int[] { first, Math.min(first + signaturePages - 1, pageCount) });
+				}
+			} else {
+				int parts = Math.max(1, Math.min(threads, pageCount));
+				for (int i = 0; i < parts; i++) {
+					ranges.add(new int[] { (int) ((long) i * pageCount / parts) + 1,
+					    (int) ((long) (i + 1) * pageCount / parts) });
+				}
+			}
+		} finally {
+			try {
+				source.close();
+			} finally {
+				discard.close();
+			}
+		}
+
+		return ranges;
+	}
+
+	private void imposePart(File partFile, int first, int last, boolean instructions) throws IOException {
+		PdfDocument source = new PdfDocument(new PdfReader(in));
+
+		// impose() closes both documents itself; these only matter if the strategy fails before it gets that far
+		try {
+			PdfDocument part = new PdfDocument(new PdfWriter(partFile));
+
+			try {
+				AbstractImpositionStrategy strategy = factory.apply(source, part);
+
+				if (!instructions)
+					strategy.disableInstructions();
+				strategy.selectOutputPages(first, last);
+				strategy.impose();
+			} finally {
+				part.close();
+			}
+		} finally {
+			source.close();
+		}
+	}
+
+	private void assemble(List<File> partFiles) throws IOException {
+		PdfDocument result = new PdfDocument(new PdfWriter(out));
+
+		for (File partFile : partFiles) {
+			PdfDocument part = new PdfDocument(new PdfReader(partFile));
+			part.copyPagesTo(1, part.getNumberOfPages(), result);
+			part.close();
+		}
+
+		result.close();
+	}
+
+	private static void await(Future<Void> future) throws IOException {
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for imposition workers");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new IOException(cause);
+		}
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.itextpdf.commons.exceptions.ITextException;
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfLiteral;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfResources;
+import com.itextpdf.kernel.pdf.canvas.parser.util.PdfCanvasParser;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+
+/**
+ * Copies source pages as Form XObjects carrying only the resources their content streams actually use.
+ * {@link PdfPage#copyAsFormXObject(PdfDocument)} copies a page's whole resource dictionary, which for documents that
+ * share one dictionary across every page means copying every font and image in the document into each imposed page.
+ *
+ * @author Erik Ogan
+ *
+ */
+final class ResourcePruner {
+	private ResourcePruner() {
+	}
+
+	/**
+	 * Copies a page as a Form XObject with pruned resources. Falls back to a full copy if the page's content stream cannot
+	 * be scanned, or contains inline images, whose dictionaries may also name resources.
+	 *
+	 * @param page
+	 *          The source page
+	 * @param toDocument
+	 *          The document to copy it into
+	 * @return The copied page.
+	 * @throws IOException
+	 *           if the page's content cannot be read.
+	 */
+	static PdfFormXObject copyAsFormXObject(PdfPage page, PdfDocument toDocument) throws IOException {
+		byte[] content = page.getContentBytes();
+		PdfResources resources = page.getResources();
+		Map<PdfName, Set<PdfName>> used = findUsedResources(content, resources);
+
+		if (used == null)
+			return page.copyAsFormXObject(toDocument);
+
+		PdfFormXObject xObject = new PdfFormXObject(page.getCropBox());
+		xObject.getPdfObject().setData(content);
+		xObject.getPdfObject().put(PdfName.Resources, prune(resources.getPdfObject(), used).copyTo(toDocument, true));
+
+		PdfDictionary group = page.getPdfObject().getAsDictionary(PdfName.Group);
+		if (group != null)
+			xObject.getPdfObject().put(PdfName.Group, group.copyTo(toDocument, true));
+
+		return xObject;
+	}
+
+	/**
+	 * @param resources
+	 *          The resources of the page the content belongs to, which the parser needs to read inline images.
+	 * @return The names used in each resource category, or <code>null</code> if they cannot be determined.
+	 */
+	static Map<PdfName, Set<PdfName>> findUsedResources(byte[] content, PdfResources resources) throws IOException {
+		Map<PdfName, Set<PdfName>> used = new HashMap<>();
+		PdfCanvasParser parser = new PdfCanvasParser(
+		    new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(content))),
+		    resources);
+		List<PdfObject> operands = new ArrayList<>();
+
+		try {
+			while (!parser.parse(operands).isEmpty()) {
+				String operator = ((PdfLiteral) operands.get(operands.size() - 1)).toString();
+
+				switch (operator) {
+				case "Tf":
+					use(used, PdfName.Font, operands, 0);
+					break;
+				case "Do":
+					use(used, PdfName.XObject, operands, 0);
+					break;
+				case "gs":
+					use(used, PdfName.ExtGState, operands, 0);
+					break;
+				case "sh":
+					use(used, PdfName.Shading, operands, 0);
+					break;
+				case "cs":
+				case "CS":
+					use(used, PdfName.ColorSpace, operands, 0);
+					break;
+				case "scn":
+				case "SCN":
+					use(used, PdfName.Pattern, operands, operands.size() - 2);
+					break;
+				case "BDC":
+				case "DP":
+					use(used, PdfName.Properties, operands, 1);
+					break;
+				case "EI":
+					// The parser reads a whole inline image at BI, and hands it back as a stream operand to EI
+					return null;
+				default:
+					break;
+				}
+			}
+		} catch (ITextException e) {
+			return null;
+		}
+
+		return used;
+	}
+
+	private static void use(Map<PdfName, Set<PdfName>> used, PdfName category, List<PdfObject> operands, int index) {
+		// The last entry is the operator itself
+		if (index < 0 || index >= operands.size() - 1 || !operands.get(index).isName())
+			return;
+
+		used.computeIfAbsent(category, c -> new HashSet<>()).add((PdfName) operands.get(index));
+	}
+
+	private static PdfDictionary prune(PdfDictionary resources, Map<PdfName, Set<PdfName>> used) {
+		PdfDictionary pruned = new PdfDictionary();
+
+		for (PdfName category : resources.keySet()) {
+			PdfDictionary entries = resources.getAsDictionary(category);
+
+			// Keep anything that isn't a named resource category (e.g. /ProcSet) as-is
+			if (entries == null || !isNamedCategory(category)) {
+				pruned.put(category, resources.get(category, false));
+				continue;
+			}
+
+			Set<PdfName> names = used.get(category);
+			if (names == null)
+				continue;
+
+			PdfDictionary kept = new PdfDictionary();
+			for (PdfName name : names) {
+				PdfObject value = entries.get(name, false);
+				if (value != null)
+					kept.put(name, value);
+			}
+
+			if (!kept.isEmpty())
+				pruned.put(category, kept);
+		}
+
+		return pruned;
+	}
+
+	private static boolean isNamedCategory(PdfName category) {
+		return PdfName.Font.equals(category) || PdfName.XObject.equals(category) || PdfName.ExtGState.equals(category)
+		    || PdfName.Shading.equals(category) || PdfName.ColorSpace.equals(category) || PdfName.Pattern.equals(category)
+		    || PdfName.Properties.equals(category);
+	}
+}
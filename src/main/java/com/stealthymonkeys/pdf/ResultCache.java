@@ -0,0 +1,304 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * An on-disk cache of imposed booklets, keyed by a digest of the input PDF's bytes and of every option that changes
+ * the output. A hit copies the stored booklet to its destination without parsing any PDF.
+ * </p>
+ *
+ * <p>
+ * Entries are written to a temporary file and moved into place atomically, so a reader never sees a partial booklet.
+ * Temporary files left behind by a process that died mid-write are deleted when a cache is opened, once they are a day
+ * old. When the cache grows past its size limit, the least recently used entries are deleted. Last-modified times
+ * record use, so the order survives restarts. A cache is safe to share between threads, e.g. in a batch.
+ * </p>
+ *
+ * @author Erik Ogan
+ *
+ */
+public class ResultCache {
+	/**
+	 * The default size limit, 1GiB.
+	 */
+	public static final long DEFAULT_MAX_BYTES = 1L << 30;
+
+	private static final String	SUFFIX			= ".pdf";
+	private static final String	TEMP_SUFFIX	= ".tmp";
+
+	// Old enough that no imposition could still be writing it
+	private static final long STALE_TEMP_MILLIS = 24L * 60 * 60 * 1000;
+
+	/**
+	 * Produces the booklet for a cache miss.
+	 */
+	public interface Producer {
+		/**
+		 * @param result
+		 *          The file to which to write the booklet. It will be overwritten.
+		 * @throws IOException
+		 *           if the booklet cannot be produced.
+		 */
+		void produce(File result) throws IOException;
+	}
+
+	// Copies a stored entry to wherever the caller wants it
+	private interface Copier {
+		void copy(Path entry) throws IOException;
+	}
+
+	private final Path	directory;
+	private final long	maxBytes;
+
+	// Entry sizes, in access order
+	private final LinkedHashMap<String, Long>	entries	= new LinkedHashMap<>(16, 0.75f, true);
+	private long															size		= 0;
+
+	private final AtomicInteger	hits		= new AtomicInteger();
+	private final AtomicInteger	misses	= new AtomicInteger();
+
+	/**
+	 * @param directory
+	 *          The cache directory. It will be created if necessary, and may already hold entries.
+	 * @param maxBytes
+	 *          The size limit for all entries together.
+	 * @throws IOException
+	 *           if the directory cannot be created or read.
+	 */
+	public ResultCache(File directory, long maxBytes) throws IOException {
+		if (maxBytes <= 0)
+			throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+
+		this.directory = directory.toPath();
+		this.maxBytes = maxBytes;
+
+		Files.createDirectories(this.directory);
+		load();
+	}
+
+	/**
+	 * Computes a cache key from the input PDF and the options it will be imposed with.
+	 *
+	 * @param input
+	 *          The input PDF's bytes. The stream is read to the end, but not closed.
+	 * @param options
+	 *          Everything else that affects the output, e.g. the strategy, whether instructions are included and the
+	 *          output profile. Compared by their <code>toString()</code>.
+	 * @return The key, as a hexadecimal string.
+	 * @throws IOException
+	 *           if <code>input</code> cannot be read.
+	 */
+	public static String key(InputStream input, Object... options) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Every JVM is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+
+		byte[] buffer = new byte[64 * 1024];
+		for (int read; (read = input.read(buffer)) > 0;) {
+			digest.update(buffer, 0, read);
+		}
+		for (Object option : options) {
+			// Separated, so that ("ab", "c") and ("a", "bc") differ
+			digest.update((byte) 0);
+			digest.update(String.valueOf(option).getBytes(StandardCharsets.UTF_8));
+		}
+
+		StringBuilder hex = new StringBuilder();
+		for (byte b : digest.digest()) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+
+	/**
+	 * Copies the booklet stored under <code>key</code> to <code>destination</code>. On a miss, the booklet is produced,
+	 * copied, and only then stored, so that nothing can evict it in between.
+	 *
+	 * @param key
+	 *          A key from {@link #key(InputStream, Object...)}
+	 * @param destination
+	 *          Where to copy the booklet. It is not closed.
+	 * @param producer
+	 *          Produces the booklet on a miss.
+	 * @return <code>true</code> on a hit, <code>false</code> if the booklet was produced.
+	 * @throws IOException
+	 *           if the booklet cannot be produced, stored or copied.
+	 */
+	public boolean fetch(String key, OutputStream destination, Producer producer) throws IOException {
+		return fetch(key, entry -> Files.copy(entry, destination), producer);
+	}
+
+	/**
+	 * Copies the booklet stored under <code>key</code> to the file <code>destination</code>. On a miss, the booklet is
+	 * produced, copied, and only then stored; <code>destination</code> is only written once the booklet has been
+	 * produced, so a failed producer leaves it untouched.
+	 *
+	 * @param key
+	 *          A key from {@link #key(InputStream, Object...)}
+	 * @param destination
+	 *          Where to copy the booklet. It will be overwritten.
+	 * @param producer
+	 *          Produces the booklet on a miss.
+	 * @return <code>true</code> on a hit, <code>false</code> if the booklet was produced.
+	 * @throws IOException
+	 *           if the booklet cannot be produced, stored or copied.
+	 */
+	public boolean fetch(String key, File destination, Producer producer) throws IOException {
+		return fetch(key, entry -> Files.copy(entry, destination.toPath(), StandardCopyOption.REPLACE_EXISTING), producer);
+	}
+
+	private boolean fetch(String key, Copier destination, Producer producer) throws IOException {
+		Path entry = directory.resolve(key + SUFFIX);
+
+		if (touch(key, entry)) {
+			try {
+				destination.copy(entry);
+				hits.incrementAndGet();
+				return true;
+			} catch (NoSuchFileException e) {
+				// Evicted, perhaps by another process sharing the directory
+				forget(key);
+			}
+		}
+
+		misses.incrementAndGet();
+		Path temp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+		long entrySize;
+		try {
+			producer.produce(temp.toFile());
+			// Copied while still private, since once published it can be evicted by another fetch or process at any time
+			destination.copy(temp);
+			entrySize = Files.size(temp);
+			Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+
+		record(key, entrySize);
+
+		return false;
+	}
+
+	/**
+	 * @return The number of hits so far.
+	 */
+	public int getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return The number of misses so far.
+	 */
+	public int getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return The total size of the entries in the cache, in bytes.
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	private void load() throws IOException {
+		long stale = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + TEMP_SUFFIX)) {
+			for (Path temp : stream) {
+				try {
+					if (Files.getLastModifiedTime(temp).toMillis() < stale)
+						Files.delete(temp);
+				} catch (NoSuchFileException e) {
+					// Finished or swept by another process in the meantime
+				}
+			}
+		}
+
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+			stream.forEach(files::add);
+		}
+
+		// Oldest first, so that access order matches last use
+		Map<Path, FileTime> times = new LinkedHashMap<>();
+		for (Path file : files) {
+			times.put(file, Files.getLastModifiedTime(file));
+		}
+		files.sort(Comparator.comparing(times::get));
+
+		for (Path file : files) {
+			String name = file.getFileName().toString();
+			record(name.substring(0, name.length() - SUFFIX.length()), Files.size(file));
+		}
+	}
+
+	private synchronized boolean touch(String key, Path entry) throws IOException {
+		if (entries.get(key) == null) {
+			// Perhaps added by another process sharing the directory
+			if (!Files.exists(entry))
+				return false;
+			record(key, Files.size(entry));
+		}
+
+		try {
+			Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+		} catch (NoSuchFileException e) {
+			forget(key);
+			return false;
+		}
+		return true;
+	}
+
+	private synchronized void record(String key, long entrySize) throws IOException {
+		Long previous = entries.put(key, entrySize);
+		size += entrySize - (previous == null ? 0 : previous);
+
+		for (Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator(); size > maxBytes && it.hasNext();) {
+			Map.Entry<String, Long> eldest = it.next();
+			it.remove();
+			size -= eldest.getValue();
+			Files.deleteIfExists(directory.resolve(eldest.getKey() + SUFFIX));
+		}
+	}
+
+	private synchronized void forget(String key) {
+		Long previous = entries.remove(key);
+		if (previous != null)
+			size -= previous;
+	}
+}
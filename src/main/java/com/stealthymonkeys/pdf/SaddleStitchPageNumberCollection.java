@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+/**
+ * This class manages the page ordering for a saddle-stitched 2-up booklet: each side of a sheet carries two pages, the
+ * sheets are stacked in order and the stack is folded in half.
+ *
+ * <strong>Note:</strong> page counts not divisible by 4 will be padded out to the nearest 4 with blank pages to
+ * correctly impose them.
+ *
+ * @author Erik Ogan
+ *
+ */
+public class SaddleStitchPageNumberCollection implements PageNumberSequence {
+	private int	pages;
+	private int	printerExtent;
+
+	/**
+	 * Page Number Constructor
+	 *
+	 * @param pageCount
+	 *          The number of printable pages in the source PDF.
+	 */
+	public SaddleStitchPageNumberCollection(int pageCount) {
+		pages = pageCount;
+		printerExtent = (pageCount + 3) / 4 * 4;
+	}
+
+	/**
+	 * Returns the number of slots in the imposition, including the blank pages necessary to pad it out to a multiple of
+	 * 4.
+	 *
+	 * @see com.stealthymonkeys.pdf.PageNumberSequence#size()
+	 */
+	@Override
+	public int size() {
+		return printerExtent;
+	}
+
+	/**
+	 * Computes the page number for a slot, two slots to a side: the outermost pair first, alternating which side the
+	 * lower page falls on.
+	 *
+	 * Positive values are returned for pages in the pageCount, negative values are given for blank pages necessary for
+	 * imposition.
+	 *
+	 * @see com.stealthymonkeys.pdf.PageNumberSequence#pageAt(int)
+	 */
+	@Override
+	public int pageAt(int slot) {
+		if (slot < 0 || slot >= printerExtent)
+			throw new IndexOutOfBoundsException("Slot " + slot + " out of range for " + printerExtent + " slots");
+
+		int i = slot / 2;
+		boolean upperFirst = i % 2 == 0;
+		boolean first = slot % 2 == 0;
+		int page = upperFirst == first ? printerExtent - i : i + 1;
+
+		return page > pages ? -page : page;
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+/**
+ * <p>
+ * Which sides of each printed sheet an imposition produces. The output pages alternate front and back, starting with
+ * the front of the first sheet.
+ * </p>
+ *
+ * <p>
+ * For printers without duplex, impose the {@link #FRONTS} and {@link #BACKS} separately, print the fronts, and feed
+ * the sheets back through for the backs.
+ * </p>
+ *
+ * @author Erik Ogan
+ *
+ */
+public enum SheetSides {
+	/**
+	 * Both sides of every sheet, for duplex printing.
+	 */
+	BOTH,
+
+	/**
+	 * Only the front of each sheet: the odd-numbered output pages.
+	 */
+	FRONTS,
+
+	/**
+	 * Only the back of each sheet: the even-numbered output pages.
+	 */
+	BACKS;
+
+	/**
+	 * Tests whether an output page is on one of these sides.
+	 *
+	 * @param outputPage
+	 *          The output page number (1-based, not counting instruction pages)
+	 * @return <code>true</code> if the page should be imposed.
+	 */
+	public boolean includes(int outputPage) {
+		switch (this) {
+		case FRONTS:
+			return outputPage % 2 == 1;
+		case BACKS:
+			return outputPage % 2 == 0;
+		default:
+			return true;
+		}
+	}
+}
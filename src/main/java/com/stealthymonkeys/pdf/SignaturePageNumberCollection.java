@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+/**
+ * This class manages the page ordering for books printed in signatures: the pages are divided into runs of a fixed
+ * number of sheets, and each run is ordered, folded and stitched as its own booklet (as in
+ * {@link BookletPageNumberCollection}) before the signatures are gathered and bound.
+ *
+ * <strong>Note:</strong> only the last signature is padded with blank pages, and then only to the nearest 8, so it may
+ * have fewer sheets than the others.
+ *
+ * @author Erik Ogan
+ *
+ */
+public class SignaturePageNumberCollection implements PageNumberSequence {
+	private int	pages;
+	private int	signatureExtent;
+
+	private BookletPageNumberCollection	signature;
+	private BookletPageNumberCollection	lastSignature;
+
+	/**
+	 * Page Number Constructor
+	 *
+	 * @param pageCount
+	 *          The number of printable pages in the source PDF.
+	 * @param sheetsPerSignature
+	 *          The number of sheets in each signature. Each 4-up sheet carries 8 pages.
+	 */
+	public SignaturePageNumberCollection(int pageCount, int sheetsPerSignature) {
+		if (sheetsPerSignature < 1)
+			throw new IllegalArgumentException("Invalid number of sheets per signature: " + sheetsPerSignature);
+
+		pages = pageCount;
+		signatureExtent = sheetsPerSignature * 8;
+		signature = new BookletPageNumberCollection(signatureExtent);
+
+		int remainder = pageCount % signatureExtent;
+		lastSignature = remainder == 0 ? signature : new BookletPageNumberCollection(remainder);
+	}
+
+	/**
+	 * Returns the number of signatures the pages are divided into.
+	 *
+	 * @return The number of signatures.
+	 */
+	public int getSignatureCount() {
+		return (pages + signatureExtent - 1) / signatureExtent;
+	}
+
+	/**
+	 * Returns the number of slots in the imposition: every signature but the last is full, and the last is padded out to
+	 * a multiple of 8 with blank pages.
+	 *
+	 * @see com.stealthymonkeys.pdf.PageNumberSequence#size()
+	 */
+	@Override
+	public int size() {
+		if (pages == 0)
+			return 0;
+		return (getSignatureCount() - 1) * signatureExtent + lastSignature.size();
+	}
+
+	/**
+	 * Computes the page number for a slot: the slot's signature is ordered as a booklet of its own, offset by the pages
+	 * in the signatures before it.
+	 *
+	 * Positive values are returned for pages in the pageCount, negative values are given for blank pages necessary for
+	 * imposition.
+	 *
+	 * @see com.stealthymonkeys.pdf.PageNumberSequence#pageAt(int)
+	 */
+	@Override
+	public int pageAt(int slot) {
+		if (slot < 0 || slot >= size())
+			throw new IndexOutOfBoundsException("Slot " + slot + " out of range for " + size() + " slots");
+
+		int index = slot / signatureExtent;
+		int offset = index * signatureExtent;
+		BookletPageNumberCollection order = index == getSignatureCount() - 1 ? lastSignature : signature;
+		int page = order.pageAt(slot - offset);
+
+		return page > 0 ? page + offset : page - offset;
+	}
+}
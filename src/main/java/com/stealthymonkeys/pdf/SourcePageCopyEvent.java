@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event covering the copy of one source page into the output, by
+ * {@link AbstractImpositionStrategy#getCopiedPage getCopiedPage}.
+ *
+ * @author Erik Ogan
+ *
+ */
+@Name("com.stealthymonkeys.pdf.SourcePageCopy")
+@Label("Source Page Copy")
+@Category("BookletBuilder")
+@Description("Copy of a source page into the output as a Form XObject")
+@Enabled(false)
+@StackTrace(false)
+class SourcePageCopyEvent extends Event {
+	@Label("Source Page")
+	int sourcePage;
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+
+/**
+ * <p>
+ * Merges identical streams copied into an output document, such as the same font program or logo embedded separately
+ * on every page of a mail-merged PDF.
+ * </p>
+ *
+ * <p>
+ * Streams are identical when their dictionaries (apart from <code>/Length</code>) and their encoded bytes match, so
+ * streams with different filters or decode parameters are never merged. References to a duplicate are pointed at the
+ * first copy seen, and the duplicate is freed so that it is never written. iText may still hand out a freed duplicate
+ * when the same source object is copied again; any such references are redirected as they are found.
+ * </p>
+ *
+ * <p>
+ * A deduplicator keeps state for one output document, so use one per imposition job.
+ * </p>
+ *
+ * @author Erik Ogan
+ *
+ */
+public class StreamDeduplicator {
+	private final PdfDocument document;
+
+	// Keyed by dictionary description and content digest
+	private final Map<String, PdfIndirectReference> canonical = new HashMap<>();
+
+	private final Map<PdfIndirectReference, PdfIndirectReference> replaced = new IdentityHashMap<>();
+
+	private final Set<PdfIndirectReference> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	private int		streamsMerged	= 0;
+	private long	bytesSaved		= 0;
+
+	/**
+	 * @param document
+	 *          The output document whose streams will be merged.
+	 */
+	public StreamDeduplicator(PdfDocument document) {
+		this.document = document;
+	}
+
+	/**
+	 * Merges the streams reachable from a page that has just been copied into the output document with any identical
+	 * streams already seen.
+	 *
+	 * @param copiedPage
+	 *          A source page, copied into the output document.
+	 */
+	public void process(PdfFormXObject copiedPage) {
+		visitContainer(copiedPage.getPdfObject());
+	}
+
+	/**
+	 * @return The number of duplicate streams eliminated so far.
+	 */
+	public int getStreamsMerged() {
+		return streamsMerged;
+	}
+
+	/**
+	 * @return The number of bytes of stream data eliminated so far.
+	 */
+	public long getBytesSaved() {
+		return bytesSaved;
+	}
+
+	private void visitContainer(PdfObject object) {
+		if (object.isDictionary() || object.isStream()) {
+			PdfDictionary dictionary = (PdfDictionary) object;
+			for (PdfName key : new ArrayList<>(dictionary.keySet())) {
+				PdfObject value = dictionary.get(key, false);
+				PdfObject replacement = visitValue(value);
+				if (replacement != value)
+					dictionary.put(key, replacement);
+			}
+		} else if (object.isArray()) {
+			PdfArray array = (PdfArray) object;
+			for (int i = 0; i < array.size(); i++) {
+				PdfObject value = array.get(i, false);
+				PdfObject replacement = visitValue(value);
+				if (replacement != value)
+					array.set(i, replacement);
+			}
+		}
+	}
+
+	// Returns the object to store in place of value
+	private PdfObject visitValue(PdfObject value) {
+		if (value == null)
+			return null;
+
+		// Copied indirect objects are usually stored as the objects themselves rather than as references
+		PdfIndirectReference reference = value.isIndirectReference() ? (PdfIndirectReference) value
+		    : value.getIndirectReference();
+		if (reference == null) {
+			visitContainer(value);
+			return value;
+		}
+
+		PdfIndirectReference replacement = replaced.get(reference);
+		if (replacement != null)
+			return replacement;
+
+		// Anything seen before has already been merged (and may since have been flushed)
+		if (reference.getDocument() != document || !visited.add(reference))
+			return value;
+
+		PdfObject target = value.isIndirectReference() ? reference.getRefersTo() : value;
+		if (target == null)
+			return value;
+
+		// Children first, so that parents referring to merged children compare equal
+		visitContainer(target);
+
+		return target.isStream() ? deduplicate((PdfStream) target, reference, value) : value;
+	}
+
+	private PdfObject deduplicate(PdfStream stream, PdfIndirectReference reference, PdfObject value) {
+		byte[] bytes = stream.getBytes(false);
+		String key = describe(stream) + digest(bytes);
+
+		PdfIndirectReference first = canonical.putIfAbsent(key, reference);
+		if (first == null)
+			return value;
+
+		replaced.put(reference, first);
+		streamsMerged++;
+		bytesSaved += bytes.length;
+
+		reference.setFree();
+
+		return first;
+	}
+
+	private static String describe(PdfObject object) {
+		StringBuilder description = new StringBuilder();
+		describe(object, description);
+		return description.toString();
+	}
+
+	private static void describe(PdfObject object, StringBuilder description) {
+		if (object == null) {
+			description.append("null");
+		} else if (object.isIndirectReference()) {
+			PdfIndirectReference reference = (PdfIndirectReference) object;
+			description.append(reference.getObjNumber()).append(' ').append(reference.getGenNumber()).append(" R");
+		} else if (object.isDictionary() || object.isStream()) {
+			PdfDictionary dictionary = (PdfDictionary) object;
+			// Sorted, so that key order doesn't matter
+			Map<String, PdfObject> entries = new TreeMap<>();
+			for (PdfName key : dictionary.keySet()) {
+				if (!PdfName.Length.equals(key))
+					entries.put(key.getValue(), dictionary.get(key, false));
+			}
+
+			description.append("<<");
+			for (Map.Entry<String, PdfObject> entry : entries.entrySet()) {
+				description.append('/').append(entry.getKey()).append(' ');
+				describe(entry.getValue(), description);
+				description.append(' ');
+			}
+			description.append(">>");
+		} else if (object.isArray()) {
+			PdfArray array = (PdfArray) object;
+			description.append('[');
+			for (int i = 0; i < array.size(); i++) {
+				describe(array.get(i, false), description);
+				description.append(' ');
+			}
+			description.append(']');
+		} else {
+			// Tag scalars with their type, so that e.g. a name and a string with the same text differ
+			description.append(object.getType()).append(':').append(object);
+		}
+	}
+
+	private static String digest(byte[] bytes) {
+		try {
+			StringBuilder hex = new StringBuilder();
+			for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// Every JVM is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+}
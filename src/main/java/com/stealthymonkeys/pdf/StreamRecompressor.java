@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+
+/**
+ * Decodes deflated streams copied into an output document, so that the writer deflates them again at its own level.
+ * iText otherwise writes copied streams with their original encoding. Streams with decode parameters (e.g. PNG
+ * predictors) or any other filter are left alone, since decoding them could only make them larger.
+ *
+ * @author Erik Ogan
+ *
+ */
+final class StreamRecompressor {
+	private final PdfDocument	document;
+	private final int					compressionLevel;
+
+	private final Set<PdfIndirectReference> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	StreamRecompressor(PdfDocument document, int compressionLevel) {
+		this.document = document;
+		this.compressionLevel = compressionLevel;
+	}
+
+	void process(PdfFormXObject copiedPage) {
+		visit(copiedPage.getPdfObject());
+	}
+
+	private void visit(PdfObject object) {
+		if (object == null)
+			return;
+
+		if (object.isIndirectReference()) {
+			PdfIndirectReference reference = (PdfIndirectReference) object;
+			if (reference.getDocument() != document || !visited.add(reference))
+				return;
+			visit(reference.getRefersTo());
+		} else if (object.isStream() || object.isDictionary()) {
+			PdfDictionary dictionary = (PdfDictionary) object;
+			for (PdfName key : dictionary.keySet()) {
+				visit(dictionary.get(key, false));
+			}
+			if (object.isStream())
+				recompress((PdfStream) object);
+		} else if (object.isArray()) {
+			PdfArray array = (PdfArray) object;
+			for (int i = 0; i < array.size(); i++) {
+				visit(array.get(i, false));
+			}
+		}
+	}
+
+	private void recompress(PdfStream stream) {
+		PdfObject filter = stream.get(PdfName.Filter);
+		if (filter != null && filter.isArray() && ((PdfArray) filter).size() == 1)
+			filter = ((PdfArray) filter).get(0);
+
+		if (!PdfName.FlateDecode.equals(filter) || stream.containsKey(PdfName.DecodeParms))
+			return;
+
+		byte[] decoded = stream.getBytes(true);
+		stream.remove(PdfName.Filter);
+		stream.setData(decoded);
+		stream.setCompressionLevel(compressionLevel);
+	}
+}
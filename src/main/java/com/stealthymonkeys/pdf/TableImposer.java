@@ -0,0 +1,238 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.itextpdf.kernel.geom.AffineTransform;
+import com.itextpdf.kernel.geom.Point;
+import com.itextpdf.kernel.geom.Rectangle;
+
+/**
+ * <p>
+ * An {@link NupImposer} driven by a fixed table of positions and rotations, computed once at construction. Nothing is
+ * allocated per output page: coordinates and rotations are looked up by index with {@link #getX(int)},
+ * {@link #getY(int)} and {@link #getRotation(int)}. The <code>Points</code> from {@link #getPosition(int)} and
+ * {@link #iterator()} are copies, so the table cannot be modified through them.
+ * </p>
+ *
+ * <p>
+ * {@link #grid(Rectangle, int, int, boolean)} builds the table for a grid of pages on a sheet the same size as the
+ * source pages, and {@link #forSlots(Rectangle, int)} provides the 2-, 4-, 8- and 16-up grids used for booklets.
+ * </p>
+ *
+ * @author Erik Ogan
+ *
+ */
+public final class TableImposer implements NupImposer {
+	private final Rectangle	pageSize;
+	private final double		scale;
+	private final double[]	xs;
+	private final double[]	ys;
+	private final int[]			rotations;
+
+	/**
+	 * @param imposedPageSize
+	 *          The output page size
+	 * @param scale
+	 *          How much every imposed page is scaled
+	 * @param positions
+	 *          Where each imposed page's (rotated) lower left corner is placed, before scaling
+	 * @param rotations
+	 *          How far each imposed page is rotated counter-clockwise, in degrees: 0, 90, 180 or 270
+	 */
+	public TableImposer(Rectangle imposedPageSize, double scale, Point[] positions, int[] rotations) {
+		if (positions.length != rotations.length)
+			throw new IllegalArgumentException(
+			    positions.length + " positions do not match " + rotations.length + " rotations");
+		for (int rotation : rotations) {
+			if (rotation % 90 != 0 || rotation < 0 || rotation >= 360)
+				throw new IllegalArgumentException("Unsupported rotation: " + rotation);
+		}
+
+		this.pageSize = imposedPageSize;
+		this.scale = scale;
+		this.xs = new double[positions.length];
+		this.ys = new double[positions.length];
+		for (int i = 0; i < positions.length; i++) {
+			xs[i] = positions[i].getX();
+			ys[i] = positions[i].getY();
+		}
+		this.rotations = rotations.clone();
+	}
+
+	/**
+	 * Lays out <code>columns</code> by <code>rows</code> pages on a sheet of <code>size</code>, each scaled as large as
+	 * its cell allows and centered in it. Positions run left to right, top to bottom. When <code>rotated</code>, the
+	 * grid is read with the sheet turned a quarter turn counter-clockwise, and the pages are rotated to match.
+	 *
+	 * @param size
+	 *          The source page size, which is also used for the output page size.
+	 * @param columns
+	 *          The number of pages across, as read
+	 * @param rows
+	 *          The number of pages down, as read
+	 * @param rotated
+	 *          Whether the grid is read with the sheet turned
+	 * @return The imposer.
+	 */
+	public static TableImposer grid(Rectangle size, int columns, int rows, boolean rotated) {
+		double width = size.getWidth(), height = size.getHeight();
+		// The sheet's dimensions as read
+		double readWidth = rotated ? height : width, readHeight = rotated ? width : height;
+		double cellWidth = readWidth / columns, cellHeight = readHeight / rows;
+		double scale = Math.min(cellWidth / width, cellHeight / height);
+		double marginX = (cellWidth - scale * width) / 2, marginY = (cellHeight - scale * height) / 2;
+
+		Point[] positions = new Point[columns * rows];
+		int[] rotations = new int[columns * rows];
+		for (int row = 0; row < rows; row++) {
+			for (int column = 0; column < columns; column++) {
+				int slot = row * columns + column;
+				double left = column * cellWidth + marginX, bottom = (rows - 1 - row) * cellHeight + marginY;
+
+				if (rotated) {
+					// Turning the sheet back clockwise takes a point read at (x, y) to (y, height - x)
+					positions[slot] = new Point(bottom / scale, (height - left - scale * width) / scale);
+					rotations[slot] = 270;
+				} else {
+					positions[slot] = new Point(left / scale, bottom / scale);
+				}
+			}
+		}
+
+		return new TableImposer(size, scale, positions, rotations);
+	}
+
+	/**
+	 * Returns the booklet grid for <code>slots</code> pages to a side: 2-up and 8-up are read with the sheet turned, in
+	 * 2 by 1 and 4 by 2 grids; 4-up and 16-up are 2 by 2 and 4 by 4.
+	 *
+	 * @param size
+	 *          The source page size, which is also used for the output page size.
+	 * @param slots
+	 *          The number of pages on each side of a sheet: 2, 4, 8 or 16.
+	 * @return The imposer.
+	 */
+	public static TableImposer forSlots(Rectangle size, int slots) {
+		switch (slots) {
+		case 2:
+			return grid(size, 2, 1, true);
+		case 4:
+			return grid(size, 2, 2, false);
+		case 8:
+			return grid(size, 4, 2, true);
+		case 16:
+			return grid(size, 4, 4, false);
+		default:
+			throw new IllegalArgumentException("Unsupported number of pages per side: " + slots);
+		}
+	}
+
+	/**
+	 * Returns how much every imposed page is scaled.
+	 *
+	 * @return The scale factor.
+	 */
+	public double getScale() {
+		return scale;
+	}
+
+	/**
+	 * Transformation matrix to scale imposed pages uniformly by {@link #getScale()}. A new matrix is returned each time,
+	 * since <code>AffineTransform</code> is mutable.
+	 *
+	 * @see com.stealthymonkeys.pdf.NupImposer#getTransformMatrix()
+	 */
+	@Override
+	public AffineTransform getTransformMatrix() {
+		return AffineTransform.getScaleInstance(scale, scale);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.stealthymonkeys.pdf.NupImposer#getImposedPageSize()
+	 */
+	@Override
+	public Rectangle getImposedPageSize() {
+		return pageSize;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.stealthymonkeys.pdf.NupImposer#getSlotCount()
+	 */
+	@Override
+	public int getSlotCount() {
+		return xs.length;
+	}
+
+	/**
+	 * Returns a new <code>Point</code> each time. Use {@link #getX(int)} and {@link #getY(int)} to avoid the allocation.
+	 *
+	 * @see com.stealthymonkeys.pdf.NupImposer#getPosition(int)
+	 */
+	@Override
+	public Point getPosition(int slot) {
+		return new Point(xs[slot], ys[slot]);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.stealthymonkeys.pdf.NupImposer#getX(int)
+	 */
+	@Override
+	public double getX(int slot) {
+		return xs[slot];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.stealthymonkeys.pdf.NupImposer#getY(int)
+	 */
+	@Override
+	public double getY(int slot) {
+		return ys[slot];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.stealthymonkeys.pdf.NupImposer#getRotation(int)
+	 */
+	@Override
+	public int getRotation(int slot) {
+		return rotations[slot];
+	}
+
+	/**
+	 * An iterator specifying where on the output page each imposed page should be placed, over copies of the table's
+	 * positions.
+	 *
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<Point> iterator() {
+		List<Point> positions = new ArrayList<>(xs.length);
+		for (int i = 0; i < xs.length; i++) {
+			positions.add(getPosition(i));
+		}
+		return positions.iterator();
+	}
+}
@@ -13,8 +13,10 @@
 package com.stealthymonkeys.pdf;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -25,11 +27,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.itextpdf.kernel.geom.PageSize;
-import com.itextpdf.kernel.geom.Point;
 import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfPage;
@@ -66,6 +68,45 @@ class AbstractImpositionStrategyTest {
 		strategy.validate(expectedCalls);
 	}
 
+	@ParameterizedTest
+	@ValueSource(ints = { 0, 2, 4, 8, 16 })
+	void testPlacementAllocatesNothing(int slots) {
+		// 0 is the original 4-up imposer, the rest the table-driven ones
+		NupImposer imposer = slots == 0 ? new FourUpImposer(PageSize.LETTER)
+		    : TableImposer.forSlots(PageSize.LETTER, slots);
+		double[] placed = new double[1];
+		ConcreteImpositionStrategy strategy = new ConcreteImpositionStrategy(inMock, outMock) {
+			@Override
+			protected void imposePage(PdfCanvas canvas, PdfFormXObject copiedPage, double x, double y) {
+				placed[0] += x + y;
+			}
+
+			@Override
+			protected void imposePage(PdfCanvas canvas, PdfFormXObject copiedPage, double x, double y, int rotation) {
+				placed[0] += x + y + rotation;
+			}
+		};
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		int count = imposer.getSlotCount();
+
+		// The first pass loads and links everything involved. The JIT can still allocate a little while it swaps in
+		// compiled code, so keep the quietest of the rest: allocating per slot would show in every one of them.
+		long allocated = Long.MAX_VALUE;
+		for (int pass = 0; pass < 5; pass++) {
+			long before = threads.getCurrentThreadAllocatedBytes();
+			for (int sheet = 0; sheet < 1000; sheet++) {
+				for (int position = 0; position < count; position++) {
+					strategy.imposeSlot(canvasMock, copiedMock, imposer, position);
+				}
+			}
+			if (pass > 0)
+				allocated = Math.min(allocated, threads.getCurrentThreadAllocatedBytes() - before);
+		}
+
+		assertTrue(placed[0] > 0);
+		assertEquals(0, allocated, "Bytes allocated placing 1000 sheets");
+	}
+
 	static Stream<Arguments> impositionProvider() {
 		Rectangle pageSize = new Rectangle(23, 42);
 
@@ -163,8 +204,8 @@ class AbstractImpositionStrategyTest {
 		}
 
 		@Override
-		protected void imposePage(PdfCanvas canvas, PdfFormXObject copiedPage, Point location) {
-			calls.add("imposePage[" + location.getX() + ", " + location.getY() + "]");
+		protected void imposePage(PdfCanvas canvas, PdfFormXObject copiedPage, double x, double y) {
+			calls.add("imposePage[" + x + ", " + y + "]");
 		}
 
 		public void validate(List<String> expected) {
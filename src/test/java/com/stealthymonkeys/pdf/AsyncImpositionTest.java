@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class AsyncImpositionTest {
+	private static FourUpBookletStrategy createStrategy(int pageCount, File outFile) throws IOException {
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(
+		    new PdfDocument(new PdfReader(SyntheticPdf.create(pageCount))), new PdfDocument(new PdfWriter(outFile)));
+		strategy.disableInstructions();
+		return strategy;
+	}
+
+	@Test
+	void testImposeOnVirtualThread() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+		File outFile = SyntheticPdf.createOutput();
+		FourUpBookletStrategy strategy = createStrategy(16, outFile);
+		AtomicReference<Thread> thread = new AtomicReference<>();
+		strategy.setImpositionListener(new ImpositionListener() {
+			@Override
+			public void impositionStarted() {
+				thread.set(Thread.currentThread());
+			}
+		});
+
+		strategy.imposeAsync().get(1, TimeUnit.MINUTES);
+
+		assertTrue(thread.get().isVirtual());
+		PdfDocument result = new PdfDocument(new PdfReader(outFile));
+		assertEquals(4, result.getNumberOfPages());
+		result.close();
+	}
+
+	@Test
+	void testCancelBetweenSheets() throws IOException {
+		File outFile = SyntheticPdf.createOutput();
+		FourUpBookletStrategy strategy = createStrategy(80, outFile);
+		AtomicReference<CompletableFuture<Void>> future = new AtomicReference<>();
+		AtomicInteger pagesEmitted = new AtomicInteger();
+		strategy.setImpositionListener(new ImpositionListener() {
+			@Override
+			public void pageEmitted(int outputPage) {
+				if (pagesEmitted.incrementAndGet() == 3)
+					future.get().cancel(false);
+			}
+		});
+
+		// Hold the task until the future is in hand, then run it here
+		List<Runnable> tasks = new ArrayList<>();
+		future.set(strategy.imposeAsync(tasks::add));
+		tasks.get(0).run();
+
+		assertTrue(future.get().isCancelled());
+		assertEquals(3, pagesEmitted.get());
+		assertTrue(strategy.getResult().isClosed());
+
+		PdfDocument result = new PdfDocument(new PdfReader(outFile));
+		assertEquals(3, result.getNumberOfPages());
+		result.close();
+	}
+
+	@Test
+	void testFailure() throws IOException {
+		FourUpBookletStrategy strategy = createStrategy(8, SyntheticPdf.createOutput());
+		strategy.selectOutputPages(1, 1);
+		strategy.setImpositionListener(new ImpositionListener() {
+			@Override
+			public void pageEmitted(int outputPage) {
+				throw new IllegalStateException("Listener failed");
+			}
+		});
+
+		ExecutionException e = assertThrows(ExecutionException.class,
+		    () -> strategy.imposeAsync(Runnable::run).get());
+		assertTrue(e.getCause() instanceof IllegalStateException);
+	}
+
+	@Test
+	void testForeignCancellationFails() throws IOException {
+		FourUpBookletStrategy strategy = createStrategy(8, SyntheticPdf.createOutput());
+		strategy.setImpositionListener(new ImpositionListener() {
+			@Override
+			public void pageEmitted(int outputPage) {
+				throw new CancellationException("Not ours");
+			}
+		});
+
+		CompletableFuture<Void> future = strategy.imposeAsync(Runnable::run);
+
+		assertTrue(future.isCompletedExceptionally());
+		assertFalse(future.isCancelled());
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class BatchImpositionTest {
+	private Path	directory;
+	private File	outputDirectory;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		directory = Files.createTempDirectory("batch-");
+		outputDirectory = Files.createTempDirectory("batch-out-").toFile();
+	}
+
+	@Test
+	void testResolveDirectory() throws IOException {
+		File b = touch("b.pdf"), a = touch("a.PDF");
+		touch("notes.txt");
+
+		assertEquals(Arrays.asList(a, b), BatchImposition.resolveInputs(directory.toString()));
+	}
+
+	@Test
+	void testResolveGlob() throws IOException {
+		File first = touch("scan-1.pdf"), second = touch("scan-2.pdf");
+		touch("cover.pdf");
+
+		assertEquals(Arrays.asList(first, second),
+		    BatchImposition.resolveInputs(directory.resolve("scan-*.pdf").toString()));
+	}
+
+	@Test
+	void testResolveManifest() throws IOException {
+		File relative = touch("relative.pdf");
+		File absolute = Files.createTempFile("absolute-", ".pdf").toFile();
+		absolute.deleteOnExit();
+		Path manifest = directory.resolve("manifest.txt");
+		Files.write(manifest, Arrays.asList("# A comment", "relative.pdf", "", "  " + absolute.getAbsolutePath() + "  "),
+		    StandardCharsets.UTF_8);
+
+		assertEquals(Arrays.asList(relative, absolute), BatchImposition.resolveInputs(manifest.toString()));
+	}
+
+	@Test
+	void testResolveMissing() {
+		assertThrows(FileNotFoundException.class,
+		    () -> BatchImposition.resolveInputs(directory.resolve("missing/*.pdf").toString()));
+	}
+
+	@Test
+	void testFailuresAreReported() throws IOException {
+		File good = SyntheticPdf.create(4);
+		File bad = touch("bad.pdf");
+		Files.write(bad.toPath(), "Not a PDF".getBytes(StandardCharsets.US_ASCII));
+		File missing = directory.resolve("missing.pdf").toFile();
+
+		BatchImposition batch = new BatchImposition(Arrays.asList(bad, good, missing), outputDirectory, (in, out) -> {
+			FourUpBookletStrategy strategy = new FourUpBookletStrategy(in, out);
+			strategy.disableInstructions();
+			strategy.impose();
+		});
+		BatchImposition.Report report = batch.impose();
+
+		assertEquals(1, report.getSucceeded());
+		assertEquals(Arrays.asList(bad, missing), Arrays.asList(report.getFailures().keySet().toArray()));
+		assertTrue(report.toString().contains("FAILED " + bad));
+
+		PdfDocument booklet = new PdfDocument(new PdfReader(batch.getOutputFile(good)));
+		assertEquals(2, booklet.getNumberOfPages());
+		booklet.close();
+		// Nothing is left behind for the failures
+		assertFalse(batch.getOutputFile(bad).exists());
+		assertFalse(batch.getOutputFile(missing).exists());
+	}
+
+	@Test
+	void testErrorsAreReported() throws IOException {
+		File good = touch("good.pdf");
+		File huge = touch("huge.pdf");
+
+		BatchImposition batch = new BatchImposition(Arrays.asList(good, huge), outputDirectory, (in, out) -> {
+			Files.write(out.toPath(), new byte[] { 0 });
+			if (in.equals(huge))
+				throw new OutOfMemoryError("Simulated");
+		});
+		BatchImposition.Report report = batch.impose();
+
+		assertEquals(1, report.getSucceeded());
+		assertEquals(Collections.singleton(huge), report.getFailures().keySet());
+		assertTrue(report.getFailures().get(huge) instanceof OutOfMemoryError);
+		assertTrue(batch.getOutputFile(good).exists());
+		assertFalse(batch.getOutputFile(huge).exists());
+	}
+
+	@Test
+	void testNameCollisions() throws IOException {
+		File first = touch("book.pdf");
+		Files.createDirectory(directory.resolve("other"));
+		File second = touch("other/book.pdf");
+		File third = touch("other/Book.PDF");
+
+		List<File> inputs = Arrays.asList(first, second, first, third);
+		BatchImposition batch = new BatchImposition(inputs, outputDirectory, (in, out) -> {
+			// Each booklet is written exactly once
+			if (!out.createNewFile())
+				throw new IOException(out + " already exists");
+		});
+		BatchImposition.Report report = batch.impose();
+		assertEquals(3, report.getSucceeded());
+		assertTrue(report.getFailures().isEmpty(), report.toString());
+
+		Set<String> names = new HashSet<>();
+		for (File input : inputs) {
+			names.add(batch.getOutputFile(input).getName());
+		}
+		assertEquals(new HashSet<>(Arrays.asList("book-booklet.pdf", "book-2-booklet.pdf", "Book-3-booklet.pdf")), names);
+	}
+
+	private File touch(String name) throws IOException {
+		return Files.createFile(directory.resolve(name)).toFile();
+	}
+}
@@ -20,6 +20,17 @@ class BookletPageNumberCollectionTest {
 		}
 	}
 
+	@ParameterizedTest
+	@MethodSource("pageLayoutProvider")
+	void testPageAt(int pageCount, int pages[]) {
+		BookletPageNumberCollection collection = new BookletPageNumberCollection(pageCount);
+		assertEquals(pages.length, collection.size());
+		// Walk backwards, to make sure no slot depends on the ones before it
+		for (int i = pages.length - 1; i >= 0; i--) {
+			assertEquals(pages[i], collection.pageAt(i));
+		}
+	}
+
 	static Stream<Arguments> pageLayoutProvider() {
 		return Stream.of(
 		// @formatter:off
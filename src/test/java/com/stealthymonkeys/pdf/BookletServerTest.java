@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class BookletServerTest {
+	private BookletServer server;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		start(BookletServer.DEFAULT_MAX_REQUEST_BYTES);
+	}
+
+	@AfterEach
+	void tearDown() {
+		server.stop(0);
+	}
+
+	@Test
+	void testHealth() throws IOException {
+		assertEquals(200, send("GET", "/health", null, new byte[0]).status);
+	}
+
+	@Test
+	void testMethodNotAllowed() throws IOException {
+		assertEquals(405, send("GET", "/impose", null, new byte[0]).status);
+	}
+
+	@Test
+	void testTooLarge() throws IOException {
+		server.stop(0);
+		// Small enough that the server can drain what it refuses
+		start(1024);
+
+		byte[] body = new byte[1025];
+		assertEquals(413, send("POST", "/impose", Integer.toString(body.length), body).status);
+		assertEquals(413, send("POST", "/impose", null, body, true).status);
+	}
+
+	@Test
+	void testInvalidContentLength() throws IOException {
+		assertEquals(400, send("POST", "/impose", "-1", new byte[0]).status);
+	}
+
+	@Test
+	void testUnreadablePdf() throws IOException {
+		byte[] body = "Not a PDF".getBytes(StandardCharsets.US_ASCII);
+		assertEquals(400, send("POST", "/impose", Integer.toString(body.length), body).status);
+	}
+
+	@Test
+	void testImpose() throws IOException {
+		byte[] body = Files.readAllBytes(SyntheticPdf.create(8).toPath());
+		Response response = send("POST", "/impose?skipInstructions", Integer.toString(body.length), body);
+
+		assertEquals(200, response.status);
+		PdfDocument result = new PdfDocument(new PdfReader(new ByteArrayInputStream(response.body)));
+		assertEquals(2, result.getNumberOfPages());
+		result.close();
+	}
+
+	@Test
+	void testFailedImpositionIsReported() throws IOException {
+		// Fails part way through, after the first sheet has been written
+		server.impositionListener = new ImpositionListener() {
+			@Override
+			public void pageEmitted(int outputPage) {
+				throw new IllegalStateException("Simulated failure");
+			}
+		};
+
+		byte[] body = Files.readAllBytes(SyntheticPdf.create(8).toPath());
+		Response response = send("POST", "/impose?skipInstructions", Integer.toString(body.length), body);
+
+		assertEquals(500, response.status);
+		assertTrue(new String(response.body, StandardCharsets.US_ASCII).contains("Simulated failure"));
+	}
+
+	private void start(long maxRequestBytes) throws IOException {
+		server = new BookletServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2, maxRequestBytes);
+		server.start();
+	}
+
+	private static class Response {
+		int			status;
+		byte[]	body;
+	}
+
+	private Response send(String method, String path, String contentLength, byte[] body) throws IOException {
+		return send(method, path, contentLength, body, false);
+	}
+
+	// A raw socket, since HTTP clients will not send an invalid Content-Length
+	private Response send(String method, String path, String contentLength, byte[] body, boolean chunked)
+	    throws IOException {
+		InetSocketAddress address = server.getAddress();
+		try (Socket socket = new Socket(address.getAddress(), address.getPort())) {
+			socket.setSoTimeout(30_000);
+
+			StringBuilder request = new StringBuilder();
+			request.append(method).append(' ').append(path).append(" HTTP/1.1\r\n");
+			request.append("Host: localhost\r\nConnection: close\r\n");
+			if (contentLength != null)
+				request.append("Content-Length: ").append(contentLength).append("\r\n");
+			if (chunked)
+				request.append("Transfer-Encoding: chunked\r\n\r\n").append(Integer.toHexString(body.length));
+			request.append("\r\n");
+
+			OutputStream out = socket.getOutputStream();
+			out.write(request.toString().getBytes(StandardCharsets.US_ASCII));
+			out.write(body);
+			if (chunked)
+				out.write("\r\n0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+			out.flush();
+
+			InputStream in = socket.getInputStream();
+			byte[] raw = in.readAllBytes();
+			int headerEnd = indexOf(raw, "\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+			String statusLine = new String(raw, 0, indexOf(raw, "\r\n".getBytes(StandardCharsets.US_ASCII)),
+			    StandardCharsets.US_ASCII);
+
+			Response response = new Response();
+			response.status = Integer.parseInt(statusLine.split(" ")[1]);
+			response.body = Arrays.copyOfRange(raw, headerEnd + 4, raw.length);
+			return response;
+		}
+	}
+
+	private static int indexOf(byte[] bytes, byte[] target) {
+		for (int i = 0; i + target.length <= bytes.length; i++) {
+			if (Arrays.equals(bytes, i, i + target.length, target, 0, target.length))
+				return i;
+		}
+		throw new IllegalStateException("Malformed response");
+	}
+}
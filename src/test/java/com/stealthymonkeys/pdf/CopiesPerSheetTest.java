@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class CopiesPerSheetTest {
+	private static int[] toArray(PageNumberSequence pages) {
+		int[] result = new int[pages.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = pages.pageAt(i);
+		}
+		return result;
+	}
+
+	@Test
+	void testSaddleStitchOrder() {
+		assertArrayEquals(new int[] { 8, 1, 2, 7, 6, 3, 4, 5 }, toArray(new SaddleStitchPageNumberCollection(8)));
+		assertArrayEquals(new int[] { -4, 1, 2, 3 }, toArray(new SaddleStitchPageNumberCollection(3)));
+	}
+
+	@Test
+	void testRepeat() {
+		PageNumberSequence pages = PageNumberSequence.repeat(new SaddleStitchPageNumberCollection(3), 2, 2);
+
+		assertArrayEquals(new int[] { -4, 1, -4, 1, 2, 3, 2, 3 }, toArray(pages));
+		assertArrayEquals(new int[] { 1, 1, 2, 2, 3, 3 },
+		    toArray(PageNumberSequence.repeat(PageNumberSequence.sequential(3), 1, 2)));
+	}
+
+	@Test
+	void testInvalidCopies() throws IOException {
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(new PdfDocument(new PdfReader(SyntheticPdf.create(4))),
+		    new PdfDocument(new PdfWriter(OutputStream.nullOutputStream())));
+
+		assertThrows(IllegalArgumentException.class, () -> strategy.setCopiesPerSheet(0));
+		assertThrows(IllegalArgumentException.class, () -> strategy.setCopiesPerSheet(3));
+	}
+
+	@Test
+	void testSignaturesNeedOneCopy() throws IOException {
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(new PdfDocument(new PdfReader(SyntheticPdf.create(8))),
+		    new PdfDocument(new PdfWriter(OutputStream.nullOutputStream())));
+
+		strategy.setCopiesPerSheet(2);
+		assertThrows(IllegalArgumentException.class, () -> strategy.setSheetsPerSignature(1));
+	}
+
+	@Test
+	void testCopiesNeedNoSignatures() throws IOException {
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(new PdfDocument(new PdfReader(SyntheticPdf.create(8))),
+		    new PdfDocument(new PdfWriter(OutputStream.nullOutputStream())));
+
+		strategy.setSheetsPerSignature(1);
+		assertThrows(IllegalArgumentException.class, () -> strategy.setCopiesPerSheet(2));
+		// One copy is still fine, and leaves the signatures in place
+		strategy.setCopiesPerSheet(1);
+		assertEquals(2, strategy.getOutputPagesPerSignature());
+	}
+
+	@Test
+	void testEachPageCopiedOnce() throws IOException {
+		File outFile = SyntheticPdf.createOutput();
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(new PdfDocument(new PdfReader(SyntheticPdf.create(8))),
+		    new PdfDocument(new PdfWriter(outFile)));
+		strategy.disableInstructions();
+		strategy.setCopiesPerSheet(2);
+
+		assertEquals(4, strategy.getOutputPageCount());
+		strategy.impose();
+
+		PdfDocument result = new PdfDocument(new PdfReader(outFile));
+		assertEquals(4, result.getNumberOfPages());
+		for (int i = 1; i <= result.getNumberOfPages(); i++) {
+			// Two distinct source pages, each placed twice
+			PdfDictionary xObjects = result.getPage(i).getResources().getResource(PdfName.XObject);
+			assertEquals(2, xObjects.size());
+		}
+		result.close();
+	}
+
+	@Test
+	void testFourCopies() throws IOException {
+		File outFile = SyntheticPdf.createOutput();
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(new PdfDocument(new PdfReader(SyntheticPdf.create(3))),
+		    new PdfDocument(new PdfWriter(outFile)));
+		strategy.disableInstructions();
+		strategy.setCopiesPerSheet(4);
+		strategy.enableStreaming();
+		strategy.impose();
+
+		PdfDocument result = new PdfDocument(new PdfReader(outFile));
+		assertEquals(3, result.getNumberOfPages());
+		assertEquals(1, result.getPage(1).getResources().getResource(PdfName.XObject).size());
+		result.close();
+	}
+}
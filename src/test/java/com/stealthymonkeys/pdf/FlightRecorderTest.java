@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class FlightRecorderTest {
+	private static List<RecordedEvent> record(File outFile) throws IOException, ParseException {
+		Configuration configuration;
+		try (InputStream stream = FlightRecorderTest.class.getClassLoader().getResourceAsStream("jfr/bookletbuilder.jfc");
+		    Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+			configuration = Configuration.create(reader);
+		}
+
+		Path dump = Files.createTempFile("booklet-", ".jfr");
+		try (Recording recording = new Recording(configuration)) {
+			recording.start();
+
+			FourUpBookletStrategy strategy = new FourUpBookletStrategy(
+			    new PdfDocument(new PdfReader(SyntheticPdf.create(8))), new PdfDocument(new PdfWriter(outFile)));
+			strategy.disableInstructions();
+			strategy.impose();
+
+			recording.stop();
+			recording.dump(dump);
+			return RecordingFile.readAllEvents(dump);
+		} finally {
+			Files.delete(dump);
+		}
+	}
+
+	private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+		return events.stream().filter(e -> e.getEventType().getName().equals("com.stealthymonkeys.pdf." + name))
+		    .collect(Collectors.toList());
+	}
+
+	@Test
+	void testEventsRecorded() throws IOException, ParseException {
+		File outFile = SyntheticPdf.createOutput();
+		List<RecordedEvent> events = record(outFile);
+
+		List<RecordedEvent> jobs = ofType(events, "ImpositionJob");
+		assertEquals(1, jobs.size());
+		RecordedEvent job = jobs.get(0);
+		assertEquals(FourUpBookletStrategy.class.getName(), job.getString("strategy"));
+		assertEquals(8, job.getInt("inputPages"));
+		assertEquals(2, job.getInt("outputPages"));
+		assertEquals(0, job.getInt("instructionPages"));
+		assertEquals(outFile.length(), job.getLong("bytesWritten"));
+		assertTrue(job.getDuration().toNanos() > 0);
+
+		Set<Integer> imposed = new TreeSet<>();
+		for (RecordedEvent page : ofType(events, "ImpositionPage")) {
+			imposed.add(page.getInt("outputPage"));
+			assertEquals(4, page.getInt("sourcePages"));
+		}
+		assertEquals(Set.of(1, 2), imposed);
+		assertEquals(2, ofType(events, "ImpositionPage").size());
+
+		Set<Integer> copied = new TreeSet<>();
+		for (RecordedEvent copy : ofType(events, "SourcePageCopy")) {
+			copied.add(copy.getInt("sourcePage"));
+		}
+		assertEquals(Set.of(1, 2, 3, 4, 5, 6, 7, 8), copied);
+		assertEquals(8, ofType(events, "SourcePageCopy").size());
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class ImageDownsamplerTest {
+	// Synthetic images are 64 pixels across 2 inches, and 4-up imposition roughly halves that, so about 50 DPI printed
+	private static final int PAGE_COUNT = 8;
+
+	@Test
+	void testDownsamplesHighResolutionImages() throws IOException {
+		File inFile = SyntheticPdf.create(PAGE_COUNT);
+		File full = impose(inFile, null);
+
+		ImageDownsampler downsampler = new ImageDownsampler(16);
+		File downsampled = impose(inFile, downsampler);
+
+		assertEquals(PAGE_COUNT, downsampler.getImagesResampled());
+		assertTrue(downsampler.getBytesSaved() > 0);
+		assertTrue(downsampled.length() < full.length(),
+		    "Downsampled output is " + downsampled.length() + " bytes, full resolution is " + full.length());
+	}
+
+	@Test
+	void testLeavesLowResolutionImagesAlone() throws IOException {
+		ImageDownsampler downsampler = new ImageDownsampler(300);
+		impose(SyntheticPdf.create(PAGE_COUNT), downsampler);
+
+		assertEquals(0, downsampler.getImagesResampled());
+		assertEquals(0, downsampler.getBytesSaved());
+	}
+
+	@Test
+	void testSharedImageKeepsLargestPlacement() throws IOException {
+		// Drawn at half an inch on the first page and four inches on the second: 128 pixels at 32 DPI
+		File inFile = createImagePages(createImage(256, PdfName.DeviceRGB, 256), 0.5, 4);
+		ImageDownsampler downsampler = new ImageDownsampler(32);
+		List<PdfStream> images = process(inFile, downsampler);
+
+		assertSame(images.get(0), images.get(1));
+		assertEquals(1, downsampler.getImagesResampled());
+		assertEquals(128, images.get(1).getAsNumber(PdfName.Width).intValue());
+	}
+
+	@Test
+	void testStreamingResamplesEachCopy() throws IOException {
+		// Eight pages sharing one image, imposed onto two output pages, each flushed with its own copy of the image
+		double[] inches = new double[PAGE_COUNT];
+		Arrays.fill(inches, 2);
+		File inFile = createImagePages(createImage(256, PdfName.DeviceRGB, 256), inches);
+		File outFile = SyntheticPdf.createOutput();
+		ImageDownsampler downsampler = new ImageDownsampler(16);
+
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(inFile, outFile);
+		strategy.disableInstructions();
+		strategy.enableStreaming();
+		strategy.setImageDownsampler(downsampler);
+		strategy.impose();
+
+		assertEquals(2, downsampler.getImagesResampled());
+
+		PdfDocument result = new PdfDocument(new PdfReader(outFile));
+		assertEquals(2, result.getNumberOfPages());
+		for (int i = 1; i <= result.getNumberOfPages(); i++) {
+			PdfDictionary forms = result.getPage(i).getResources().getResource(PdfName.XObject);
+			for (PdfName name : forms.keySet()) {
+				PdfDictionary images = forms.getAsStream(name).getAsDictionary(PdfName.Resources)
+				    .getAsDictionary(PdfName.XObject);
+				for (PdfName imageName : images.keySet()) {
+					PdfStream image = images.getAsStream(imageName);
+					assertEquals(PdfName.DCTDecode, image.getAsName(PdfName.Filter), "Output page " + i);
+					assertTrue(image.getAsNumber(PdfName.Width).intValue() < 256, "Output page " + i);
+				}
+			}
+		}
+		result.close();
+	}
+
+	@Test
+	void testDecodeApplied() throws IOException {
+		// Dark samples, inverted by /Decode into a light image
+		PdfStream image = createImage(256, PdfName.DeviceGray, 32);
+		image.put(PdfName.Decode, new PdfArray(new float[] { 1, 0 }));
+		ImageDownsampler downsampler = new ImageDownsampler(32);
+		PdfStream resampled = process(createImagePages(image, 2), downsampler).get(0);
+
+		assertEquals(1, downsampler.getImagesResampled());
+		assertFalse(resampled.containsKey(PdfName.Decode));
+
+		Raster pixels = ImageIO.read(new ByteArrayInputStream(resampled.getBytes(false))).getRaster();
+		long total = 0;
+		for (int y = 0; y < pixels.getHeight(); y++) {
+			for (int x = 0; x < pixels.getWidth(); x++) {
+				total += pixels.getSample(x, y, 0);
+			}
+		}
+		double mean = (double) total / (pixels.getWidth() * pixels.getHeight());
+		assertTrue(mean > 200, "Mean sample is " + mean);
+	}
+
+	// An 8-bit square image of random samples below limit
+	private static PdfStream createImage(int size, PdfName colorSpace, int limit) {
+		int components = PdfName.DeviceRGB.equals(colorSpace) ? 3 : 1;
+		byte[] samples = new byte[size * size * components];
+		Random random = new Random(0);
+		for (int i = 0; i < samples.length; i++) {
+			samples[i] = (byte) random.nextInt(limit);
+		}
+
+		PdfStream stream = new PdfStream(samples);
+		stream.put(PdfName.Type, PdfName.XObject);
+		stream.put(PdfName.Subtype, PdfName.Image);
+		stream.put(PdfName.Width, new PdfNumber(size));
+		stream.put(PdfName.Height, new PdfNumber(size));
+		stream.put(PdfName.ColorSpace, colorSpace);
+		stream.put(PdfName.BitsPerComponent, new PdfNumber(8));
+		return stream;
+	}
+
+	// One page for each size, in inches, all drawing the same image
+	private static File createImagePages(PdfStream image, double... inches) throws IOException {
+		File file = File.createTempFile("synthetic-", ".pdf");
+		file.deleteOnExit();
+
+		PdfDocument doc = new PdfDocument(new PdfWriter(file));
+		PdfImageXObject xObject = new PdfImageXObject(image);
+		for (double size : inches) {
+			PdfCanvas canvas = new PdfCanvas(doc.addNewPage(PageSize.LETTER));
+			canvas.addXObjectWithTransformationMatrix(xObject, (float) size * 72, 0, 0, (float) size * 72, 72, 72);
+			canvas.release();
+		}
+		doc.close();
+
+		return file;
+	}
+
+	// Copies each page into a discarded output at full size, and returns the image each copy draws
+	private static List<PdfStream> process(File inFile, ImageDownsampler downsampler) throws IOException {
+		PdfDocument source = new PdfDocument(new PdfReader(inFile));
+		PdfDocument out = new PdfDocument(new PdfWriter(OutputStream.nullOutputStream()));
+		List<PdfStream> images = new ArrayList<>();
+
+		downsampler.setScope(IntStream.rangeClosed(1, source.getNumberOfPages()).toArray(), source::getPage);
+
+		for (int i = 1; i <= source.getNumberOfPages(); i++) {
+			PdfPage page = source.getPage(i);
+			PdfFormXObject copiedPage = page.copyAsFormXObject(out);
+			downsampler.process(page, out, 1);
+
+			PdfDictionary xObjects = copiedPage.getResources().getResource(PdfName.XObject);
+			images.add(xObjects.getAsStream(xObjects.keySet().iterator().next()));
+		}
+
+		source.close();
+		out.close();
+		return images;
+	}
+
+	private File impose(File inFile, ImageDownsampler downsampler) throws IOException {
+		File outFile = SyntheticPdf.createOutput();
+
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(inFile, outFile);
+		strategy.disableInstructions();
+		strategy.setImageDownsampler(downsampler);
+		strategy.impose();
+
+		return outFile;
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class ImpositionPlanTest {
+	@Test
+	void testPlan() throws IOException {
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(new PdfReader(SyntheticPdf.create(13)),
+		    new PdfWriter(OutputStream.nullOutputStream()));
+		strategy.disableInstructions();
+		ImpositionPlan plan = strategy.getPlan();
+
+		assertEquals("FourUpBookletStrategy", plan.getStrategy());
+		assertEquals(13, plan.getSourcePages());
+		assertEquals(3, plan.getBlankPages());
+		assertEquals(4, plan.getSlotsPerPage());
+		assertEquals(4, plan.getOutputPages());
+		assertEquals(2, plan.getSheets());
+		assertEquals(0, plan.getInstructionPages());
+		assertTrue(plan.hasUniformPageSizes());
+		assertEquals(PageSize.LETTER.getWidth(), plan.getOutputPageSize().getWidth());
+		assertEquals(PageSize.LETTER.getHeight(), plan.getOutputPageSize().getHeight());
+
+		// Nothing was imposed
+		assertEquals(0, strategy.getResult().getNumberOfPages());
+	}
+
+	@Test
+	void testPlanJson() throws IOException {
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(new PdfReader(SyntheticPdf.create(16)),
+		    new PdfWriter(OutputStream.nullOutputStream()));
+		strategy.disableInstructions();
+		ImpositionPlan plan = strategy.getPlan();
+
+		assertTrue(plan.toJson().startsWith("{\"strategy\":\"FourUpBookletStrategy\",\"sourcePages\":16,\"blankPages\":0,"),
+		    plan.toJson());
+		assertTrue(plan.toJson().contains("\"outputPageSize\":{\"width\":612.0,\"height\":792.0}"), plan.toJson());
+	}
+
+	@Test
+	void testPlanJsonEscapesStrategy() {
+		ImpositionPlan plan = new ImpositionPlan("My \"Quoted\"\\Strategy\n", 4, 0, 8, 1, 0, PageSize.LETTER, true,
+		    PageSize.LETTER);
+
+		assertTrue(plan.toJson().startsWith("{\"strategy\":\"My \\\"Quoted\\\"\\\\Strategy\\u000a\",\"sourcePages\":4,"),
+		    plan.toJson());
+	}
+
+	@Test
+	void testBuilderPlan() throws IOException {
+		BookletBuilder builder = new BookletBuilder(SyntheticPdf.create(13).getPath(), null, false);
+		ImpositionPlan plan = builder.plan();
+
+		assertEquals(13, plan.getSourcePages());
+		assertEquals(3, plan.getBlankPages());
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class ImpositionStatisticsTest {
+	// Records every callback in order, while passing them on to the statistics
+	private static class RecordingListener extends ImpositionStatistics {
+		final List<String> calls = new ArrayList<>();
+
+		@Override
+		public void impositionStarted() {
+			calls.add("started");
+			super.impositionStarted();
+		}
+
+		@Override
+		public void phaseCompleted(ImpositionPhase phase, long nanos) {
+			assertTrue(nanos >= 0);
+			calls.add(phase.name());
+			super.phaseCompleted(phase, nanos);
+		}
+
+		@Override
+		public void pageEmitted(int outputPage) {
+			calls.add("page " + outputPage);
+			super.pageEmitted(outputPage);
+		}
+
+		@Override
+		public void impositionCompleted(long bytesWritten) {
+			calls.add("completed");
+			super.impositionCompleted(bytesWritten);
+		}
+
+		long count(String call) {
+			return calls.stream().filter(call::equals).count();
+		}
+	}
+
+	private static RecordingListener impose(File outFile, int copies, boolean streaming) throws IOException {
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(new PdfDocument(new PdfReader(SyntheticPdf.create(8))),
+		    new PdfDocument(new PdfWriter(outFile)));
+		RecordingListener listener = new RecordingListener();
+
+		strategy.disableInstructions();
+		strategy.setCopiesPerSheet(copies);
+		if (streaming)
+			strategy.enableStreaming();
+		strategy.setImpositionListener(listener);
+		strategy.impose();
+		return listener;
+	}
+
+	@Test
+	void testPhaseCallbacks() throws IOException {
+		File outFile = SyntheticPdf.createOutput();
+		RecordingListener listener = impose(outFile, 1, true);
+		List<String> calls = listener.calls;
+
+		assertEquals("started", calls.get(0));
+		assertEquals("INSTRUCTIONS", calls.get(1));
+		assertEquals("CLOSE", calls.get(calls.size() - 2));
+		assertEquals("completed", calls.get(calls.size() - 1));
+
+		// Each output page is flushed, then reported, in order
+		assertEquals(1, listener.count("page 1"));
+		assertEquals(1, listener.count("page 2"));
+		assertEquals(calls.indexOf("FLUSH") + 1, calls.indexOf("page 1"));
+		assertTrue(calls.indexOf("page 1") < calls.indexOf("page 2"));
+
+		assertEquals(0, listener.count("OPEN"));
+		assertEquals(8, listener.count("SOURCE_PAGE"));
+		assertEquals(8, listener.count("COPY"));
+		assertEquals(8, listener.count("IMPOSE"));
+		assertEquals(2, listener.count("FLUSH"));
+	}
+
+	@Test
+	void testStatisticsAddUp() throws IOException {
+		File outFile = SyntheticPdf.createOutput();
+		ImpositionStatistics statistics = impose(outFile, 1, true);
+
+		PdfDocument result = new PdfDocument(new PdfReader(outFile));
+		assertEquals(result.getNumberOfPages(), statistics.getOutputPages());
+		result.close();
+
+		assertEquals(8, statistics.getSourcePages());
+		assertEquals(outFile.length(), statistics.getBytesWritten());
+		assertEquals(0, statistics.getNanos(ImpositionPhase.OPEN));
+
+		long phases = 0;
+		for (ImpositionPhase phase : ImpositionPhase.values()) {
+			phases += statistics.getNanos(phase);
+		}
+		assertTrue(phases > 0);
+		assertTrue(phases <= statistics.getElapsedNanos());
+		assertTrue(statistics.getPagesPerSecond() > 0);
+	}
+
+	@Test
+	void testRepeatedPagesCopiedOnce() throws IOException {
+		RecordingListener listener = impose(SyntheticPdf.createOutput(), 2, false);
+
+		// Two copies per sheet: every source page is placed twice, but copied and counted once
+		assertEquals(8, listener.getSourcePages());
+		assertEquals(16, listener.count("IMPOSE"));
+		assertEquals(0, listener.count("FLUSH"));
+		assertEquals(4, listener.getOutputPages());
+	}
+}
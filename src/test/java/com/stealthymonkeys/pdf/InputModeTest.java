@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class InputModeTest {
+	private static List<byte[]> impose(PdfReader reader, boolean streaming) throws IOException {
+		File outFile = SyntheticPdf.createOutput();
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(new PdfDocument(reader),
+		    new PdfDocument(new PdfWriter(outFile)));
+
+		strategy.disableInstructions();
+		if (streaming)
+			strategy.enableStreaming();
+		strategy.impose();
+		return SyntheticPdf.imposedContent(outFile);
+	}
+
+	@ParameterizedTest
+	@EnumSource(InputMode.class)
+	void testSameImposition(InputMode mode) throws IOException {
+		File inFile = SyntheticPdf.createSharedResources(8);
+		List<byte[]> expected = impose(new PdfReader(inFile), false);
+
+		for (boolean streaming : new boolean[] { false, true }) {
+			List<byte[]> actual = impose(mode.open(inFile), streaming);
+
+			assertEquals(expected.size(), actual.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertArrayEquals(expected.get(i), actual.get(i));
+			}
+		}
+	}
+
+	@Test
+	void testForName() {
+		assertEquals(InputMode.MAPPED, InputMode.forName("mapped"));
+		assertEquals(InputMode.BUFFERED, InputMode.forName("BUFFERED"));
+		assertEquals(InputMode.RANDOM_ACCESS, InputMode.forName("randomAccess"));
+		assertEquals(InputMode.RANDOM_ACCESS, InputMode.forName("random_access"));
+		assertThrows(IllegalArgumentException.class, () -> InputMode.forName("memory"));
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class MultiOutputImpositionTest {
+	private static FourUpBookletStrategy createStrategy(PdfDocument source, File outFile, SheetSides sides)
+	    throws IOException {
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(source, new PdfDocument(new PdfWriter(outFile)));
+		strategy.disableInstructions();
+		strategy.enableStreaming();
+		strategy.setSheetSides(sides);
+		return strategy;
+	}
+
+	@Test
+	void testFrontsAndBacks() throws IOException {
+		File bookletFile = SyntheticPdf.createOutput();
+		File frontsFile = SyntheticPdf.createOutput();
+		File backsFile = SyntheticPdf.createOutput();
+		PdfDocument source = new PdfDocument(new PdfReader(SyntheticPdf.create(16)));
+
+		MultiOutputImposition job = new MultiOutputImposition(source);
+		job.add(createStrategy(source, bookletFile, SheetSides.BOTH));
+		job.add(createStrategy(source, frontsFile, SheetSides.FRONTS));
+		job.add(createStrategy(source, backsFile, SheetSides.BACKS));
+		job.impose();
+
+		assertTrue(source.isClosed());
+
+		PdfDocument booklet = new PdfDocument(new PdfReader(bookletFile));
+		PdfDocument fronts = new PdfDocument(new PdfReader(frontsFile));
+		PdfDocument backs = new PdfDocument(new PdfReader(backsFile));
+
+		assertEquals(4, booklet.getNumberOfPages());
+		assertEquals(2, fronts.getNumberOfPages());
+		assertEquals(2, backs.getNumberOfPages());
+		for (int sheet = 1; sheet <= 2; sheet++) {
+			assertArrayEquals(booklet.getPage(sheet * 2 - 1).getContentBytes(), fronts.getPage(sheet).getContentBytes());
+			assertArrayEquals(booklet.getPage(sheet * 2).getContentBytes(), backs.getPage(sheet).getContentBytes());
+		}
+
+		booklet.close();
+		fronts.close();
+		backs.close();
+	}
+
+	@Test
+	void testFailureClosesRemainingOutputs() throws IOException {
+		PdfDocument source = new PdfDocument(new PdfReader(SyntheticPdf.create(8)));
+		FourUpBookletStrategy failing = createStrategy(source, SyntheticPdf.createOutput(), SheetSides.BOTH);
+		// Fails part way through, after its first sheet has been written
+		failing.setImpositionListener(new ImpositionListener() {
+			@Override
+			public void pageEmitted(int outputPage) {
+				throw new IllegalStateException("Simulated failure");
+			}
+		});
+		FourUpBookletStrategy remaining = createStrategy(source, SyntheticPdf.createOutput(), SheetSides.FRONTS);
+		MultiOutputImposition job = new MultiOutputImposition(source);
+
+		job.add(failing);
+		job.add(remaining);
+
+		assertEquals("Simulated failure", assertThrows(IllegalStateException.class, job::impose).getMessage());
+		assertTrue(source.isClosed());
+		assertTrue(failing.out.isClosed());
+		assertTrue(remaining.out.isClosed());
+	}
+
+	@Test
+	void testOtherSource() throws IOException {
+		PdfDocument source = new PdfDocument(new PdfReader(SyntheticPdf.create(4)));
+		PdfDocument other = new PdfDocument(new PdfReader(SyntheticPdf.create(4)));
+		MultiOutputImposition job = new MultiOutputImposition(source);
+
+		assertThrows(IllegalArgumentException.class, () -> job.add(
+		    new FourUpBookletStrategy(other, new PdfDocument(new PdfWriter(OutputStream.nullOutputStream())))));
+	}
+}
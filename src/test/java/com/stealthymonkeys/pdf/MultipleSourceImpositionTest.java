@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class MultipleSourceImpositionTest {
+	@Test
+	void testSourcePagesFollowInOrder() throws IOException {
+		PdfDocument cover = new PdfDocument(new PdfReader(SyntheticPdf.create(1)));
+		PdfDocument body = new PdfDocument(new PdfReader(SyntheticPdf.create(5)));
+		PdfDocument appendix = new PdfDocument(new PdfReader(SyntheticPdf.create(3)));
+
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(Arrays.asList(cover, body, appendix),
+		    new PdfDocument(new PdfWriter(OutputStream.nullOutputStream())));
+
+		assertEquals(9, strategy.getSourcePageCount());
+		assertSame(cover.getPage(1), strategy.getSourcePage(1));
+		assertSame(body.getPage(1), strategy.getSourcePage(2));
+		assertSame(body.getPage(5), strategy.getSourcePage(6));
+		assertSame(appendix.getPage(1), strategy.getSourcePage(7));
+		assertSame(appendix.getPage(3), strategy.getSourcePage(9));
+	}
+
+	@Test
+	void testImposesAllSources() throws IOException {
+		File outFile = SyntheticPdf.createOutput();
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(
+		    Arrays.asList(new PdfDocument(new PdfReader(SyntheticPdf.create(4))),
+		        new PdfDocument(new PdfReader(SyntheticPdf.create(9)))),
+		    new PdfDocument(new PdfWriter(outFile)));
+		strategy.disableInstructions();
+
+		assertEquals(13, strategy.getPlan().getSourcePages());
+		strategy.impose();
+
+		PdfDocument result = new PdfDocument(new PdfReader(outFile));
+		assertEquals(4, result.getNumberOfPages());
+		result.close();
+	}
+
+	@Test
+	void testNoSources() {
+		assertThrows(IllegalArgumentException.class, () -> new FourUpBookletStrategy(Collections.emptyList(),
+		    new PdfDocument(new PdfWriter(OutputStream.nullOutputStream()))));
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class NupBookletPageNumberCollectionTest {
+	private static void assertSameOrder(PageNumberSequence expected, PageNumberSequence actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.pageAt(i), actual.pageAt(i), "Slot " + i);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 8, 9, 39, 64 })
+	void testFourUpMatchesBooklet(int pageCount) {
+		assertSameOrder(new BookletPageNumberCollection(pageCount), new NupBookletPageNumberCollection(pageCount, 4));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 4, 7, 40 })
+	void testTwoUpMatchesSaddleStitch(int pageCount) {
+		assertSameOrder(new SaddleStitchPageNumberCollection(pageCount),
+		    new NupBookletPageNumberCollection(pageCount, 2));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 8, 16 })
+	void testEveryPageOnce(int slotsPerSide) {
+		NupBookletPageNumberCollection pages = new NupBookletPageNumberCollection(50, slotsPerSide);
+		Set<Integer> seen = new HashSet<>();
+
+		assertEquals(0, pages.size() % (2 * slotsPerSide));
+		for (int i = 0; i < pages.size(); i++) {
+			seen.add(Math.abs(pages.pageAt(i)));
+		}
+		assertEquals(pages.size(), seen.size());
+	}
+
+	@Test
+	void testEightUp() {
+		NupBookletPageNumberCollection pages = new NupBookletPageNumberCollection(16, 8);
+		int[] expected = {
+		// @formatter:off
+			16,  1, 14,  3,
+			12,  5, 10,  7,
+
+			 4, 13,  2, 15,
+			 8,  9,  6, 11
+		// @formatter:on
+		};
+
+		assertEquals(expected.length, pages.size());
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], pages.pageAt(i), "Slot " + i);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 4, 8, 16 })
+	void testBacksMirrorFronts(int slotsPerSide) {
+		NupBookletPageNumberCollection pages = new NupBookletPageNumberCollection(50, slotsPerSide);
+		// The columns as read, from TableImposer.forSlots()
+		int columns = slotsPerSide >= 8 ? 4 : 2;
+
+		for (int front = 0; front < pages.size(); front += 2 * slotsPerSide) {
+			for (int position = 0; position < slotsPerSide; position++) {
+				int row = position / columns, column = position % columns;
+				int page = Math.abs(pages.pageAt(front + position));
+				int back = Math.abs(pages.pageAt(front + slotsPerSide + row * columns + columns - 1 - column));
+
+				// After the flip each page is backed by the other side of the same leaf
+				assertEquals((page + 1) / 2, (back + 1) / 2, "Page " + page + " is backed by " + back);
+				assertEquals(1, page % 2 + back % 2, "Page " + page + " is backed by " + back);
+			}
+		}
+	}
+
+	@Test
+	void testPairsMustFillRows() {
+		assertThrows(IllegalArgumentException.class, () -> new NupBookletPageNumberCollection(16, 8, 3));
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class OutputProfileTest {
+	@Test
+	void testForName() {
+		assertEquals(OutputProfile.FAST, OutputProfile.forName("fast"));
+		assertEquals(OutputProfile.SMALLEST, OutputProfile.forName("Smallest"));
+		assertThrows(IllegalArgumentException.class, () -> OutputProfile.forName("tiny"));
+	}
+
+	@Test
+	void testSmallestIsSmallerThanFast() throws IOException {
+		File inFile = SyntheticPdf.create(40);
+		File fast = impose(inFile, OutputProfile.FAST);
+		File smallest = impose(inFile, OutputProfile.SMALLEST);
+
+		assertTrue(smallest.length() < fast.length(),
+		    "Smallest output is " + smallest.length() + " bytes, fast is " + fast.length());
+
+		PdfDocument result = new PdfDocument(new PdfReader(smallest));
+		assertEquals(10, result.getNumberOfPages());
+		result.close();
+	}
+
+	@Test
+	void testStrategyTakesProfileFromWriter() throws IOException {
+		File inFile = createFastImages(8);
+		File fromWriter = impose(inFile, OutputProfile.SMALLEST);
+
+		// The same writer settings, without the profile's recompression of copied streams
+		File writerOnly = SyntheticPdf.createOutput();
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(new PdfReader(inFile),
+		    new PdfWriter(writerOnly.getPath(), OutputProfile.SMALLEST.getWriterProperties()));
+		strategy.disableInstructions();
+		strategy.impose();
+
+		File explicit = SyntheticPdf.createOutput();
+		strategy = new FourUpBookletStrategy(new PdfReader(inFile),
+		    new PdfWriter(explicit.getPath(), OutputProfile.SMALLEST.getWriterProperties()));
+		strategy.disableInstructions();
+		strategy.setOutputProfile(OutputProfile.SMALLEST);
+		strategy.impose();
+
+		assertTrue(fromWriter.length() < writerOnly.length(),
+		    "Profiled output is " + fromWriter.length() + " bytes, unprofiled is " + writerOnly.length());
+		assertEquals(explicit.length(), fromWriter.length());
+	}
+
+	private File impose(File inFile, OutputProfile profile) throws IOException {
+		File outFile = SyntheticPdf.createOutput();
+
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(new PdfReader(inFile), profile.open(outFile));
+		strategy.disableInstructions();
+		strategy.impose();
+
+		return outFile;
+	}
+
+	// Compressible images, deflated at the fastest level, so that recompressing them makes a difference
+	private static File createFastImages(int pageCount) throws IOException {
+		File file = SyntheticPdf.createOutput();
+		PdfDocument doc = new PdfDocument(OutputProfile.FAST.open(file));
+		int size = SyntheticPdf.IMAGE_SIZE * 4;
+
+		for (int i = 1; i <= pageCount; i++) {
+			byte[] pixels = new byte[size * size];
+			for (int p = 0; p < pixels.length; p++) {
+				pixels[p] = (byte) ((p % size) * (p / size) / (i + 7));
+			}
+
+			PdfStream image = new PdfStream(pixels);
+			image.put(PdfName.Type, PdfName.XObject);
+			image.put(PdfName.Subtype, PdfName.Image);
+			image.put(PdfName.Width, new PdfNumber(size));
+			image.put(PdfName.Height, new PdfNumber(size));
+			image.put(PdfName.ColorSpace, PdfName.DeviceGray);
+			image.put(PdfName.BitsPerComponent, new PdfNumber(8));
+
+			PdfCanvas canvas = new PdfCanvas(doc.addNewPage(PageSize.LETTER));
+			canvas.addXObjectWithTransformationMatrix(new PdfImageXObject(image), 144, 0, 0, 144, 72, 72);
+			canvas.release();
+		}
+
+		doc.close();
+		return file;
+	}
+}
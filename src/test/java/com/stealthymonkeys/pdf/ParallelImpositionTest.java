@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class ParallelImpositionTest {
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2, 3, 8 })
+	void testPageOrderMatchesSerial(int threads) throws IOException {
+		File inFile = SyntheticPdf.create(41);
+		File serialFile = SyntheticPdf.createOutput();
+		File parallelFile = SyntheticPdf.createOutput();
+
+		FourUpBookletStrategy serial = new FourUpBookletStrategy(inFile, serialFile);
+		serial.disableInstructions();
+		serial.impose();
+
+		ParallelImposition parallel = new ParallelImposition(inFile, parallelFile, FourUpBookletStrategy::new);
+		parallel.disableInstructions();
+		parallel.setThreads(threads);
+		parallel.impose();
+
+		List<byte[]> expected = SyntheticPdf.imposedContent(serialFile);
+		List<byte[]> actual = SyntheticPdf.imposedContent(parallelFile);
+
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertArrayEquals(expected.get(i), actual.get(i), "Content differs at item " + i);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2 })
+	void testSignaturesMatchSerial(int threads) throws IOException {
+		File inFile = SyntheticPdf.create(41);
+		File serialFile = SyntheticPdf.createOutput();
+		File parallelFile = SyntheticPdf.createOutput();
+
+		FourUpBookletStrategy serial = new FourUpBookletStrategy(inFile, serialFile);
+		serial.disableInstructions();
+		serial.setSheetsPerSignature(2);
+		serial.impose();
+
+		// One part per signature: 41 pages in signatures of 16 is three signatures
+		ParallelImposition parallel = new ParallelImposition(inFile, parallelFile, (source, destination) -> {
+			FourUpBookletStrategy strategy = new FourUpBookletStrategy(source, destination);
+			strategy.setSheetsPerSignature(2);
+			return strategy;
+		});
+		parallel.disableInstructions();
+		parallel.setThreads(threads);
+		parallel.impose();
+
+		List<byte[]> expected = SyntheticPdf.imposedContent(serialFile);
+		List<byte[]> actual = SyntheticPdf.imposedContent(parallelFile);
+
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertArrayEquals(expected.get(i), actual.get(i), "Content differs at item " + i);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfResources;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class ResourcePrunerTest {
+	private static final int PAGE_COUNT = 16;
+
+	@Test
+	void testFindUsedResources() throws IOException {
+		byte[] content = ("q /GS1 gs /F1 12 Tf BT (Hi) Tj ET /Im2 Do /CS0 cs /P1 scn "
+		    + "/OC /MC0 BDC EMC /Sh1 sh Q").getBytes(StandardCharsets.ISO_8859_1);
+		Map<PdfName, Set<PdfName>> used = ResourcePruner.findUsedResources(content, new PdfResources());
+
+		assertEquals(Set.of(new PdfName("F1")), used.get(PdfName.Font));
+		assertEquals(Set.of(new PdfName("Im2")), used.get(PdfName.XObject));
+		assertEquals(Set.of(new PdfName("GS1")), used.get(PdfName.ExtGState));
+		assertEquals(Set.of(new PdfName("CS0")), used.get(PdfName.ColorSpace));
+		assertEquals(Set.of(new PdfName("P1")), used.get(PdfName.Pattern));
+		assertEquals(Set.of(new PdfName("MC0")), used.get(PdfName.Properties));
+		assertEquals(Set.of(new PdfName("Sh1")), used.get(PdfName.Shading));
+	}
+
+	@Test
+	void testInlineImagesAreNotPruned() throws IOException {
+		byte[] content = "BI /W 1 /H 1 /CS /G /BPC 8 ID \u0000 EI".getBytes(StandardCharsets.ISO_8859_1);
+		assertNull(ResourcePruner.findUsedResources(content, new PdfResources()));
+	}
+
+	@Test
+	void testPrunedPagesCarryOnlyTheirOwnImage() throws IOException {
+		File inFile = SyntheticPdf.createSharedResources(PAGE_COUNT);
+		File full = impose(inFile, false);
+		File pruned = impose(inFile, true);
+
+		PdfDocument result = new PdfDocument(new PdfReader(pruned));
+		PdfDictionary forms = result.getPage(1).getResources().getResource(PdfName.XObject);
+		for (PdfName name : forms.keySet()) {
+			PdfDictionary images = forms.getAsStream(name).getAsDictionary(PdfName.Resources)
+			    .getAsDictionary(PdfName.XObject);
+			assertEquals(1, images.size());
+		}
+		result.close();
+
+		assertTrue(pruned.length() < full.length(),
+		    "Pruned output is " + pruned.length() + " bytes, unpruned is " + full.length());
+	}
+
+	private File impose(File inFile, boolean prune) throws IOException {
+		File outFile = SyntheticPdf.createOutput();
+
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(inFile, outFile);
+		strategy.disableInstructions();
+		// Streaming forgets copied objects after each page, so unpruned resources are copied again for every page
+		strategy.enableStreaming();
+		if (prune)
+			strategy.enableResourcePruning();
+		strategy.impose();
+
+		return outFile;
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class ResultCacheTest {
+	private File directory;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		directory = Files.createTempDirectory("result-cache-").toFile();
+		directory.deleteOnExit();
+	}
+
+	@Test
+	void testKey() throws IOException {
+		byte[] pdf = { 1, 2, 3 };
+		String key = ResultCache.key(new ByteArrayInputStream(pdf), "a", true);
+
+		assertEquals(key, ResultCache.key(new ByteArrayInputStream(pdf), "a", true));
+		assertNotEquals(key, ResultCache.key(new ByteArrayInputStream(pdf), "a", false));
+		assertNotEquals(key, ResultCache.key(new ByteArrayInputStream(new byte[] { 1, 2, 4 }), "a", true));
+		assertNotEquals(ResultCache.key(new ByteArrayInputStream(pdf), "ab", "c"),
+		    ResultCache.key(new ByteArrayInputStream(pdf), "a", "bc"));
+	}
+
+	@Test
+	void testMissThenHit() throws IOException {
+		ResultCache cache = new ResultCache(directory, 1024);
+		AtomicInteger produced = new AtomicInteger();
+		ResultCache.Producer producer = result -> {
+			produced.incrementAndGet();
+			Files.write(result.toPath(), new byte[] { 42 });
+		};
+
+		ByteArrayOutputStream first = new ByteArrayOutputStream();
+		assertFalse(cache.fetch("key", first, producer));
+		ByteArrayOutputStream second = new ByteArrayOutputStream();
+		assertTrue(cache.fetch("key", second, producer));
+
+		assertEquals(1, produced.get());
+		assertArrayEquals(new byte[] { 42 }, first.toByteArray());
+		assertArrayEquals(new byte[] { 42 }, second.toByteArray());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		// A new cache over the same directory sees the entry
+		assertTrue(new ResultCache(directory, 1024).fetch("key", new ByteArrayOutputStream(), producer));
+		assertEquals(1, produced.get());
+	}
+
+	@Test
+	void testLeastRecentlyUsedIsEvicted() throws IOException {
+		ResultCache cache = new ResultCache(directory, 250);
+		ResultCache.Producer producer = result -> Files.write(result.toPath(), new byte[100]);
+
+		cache.fetch("a", new ByteArrayOutputStream(), producer);
+		cache.fetch("b", new ByteArrayOutputStream(), producer);
+		// Use "a" again, so that "b" is the least recently used
+		assertTrue(cache.fetch("a", new ByteArrayOutputStream(), producer));
+		cache.fetch("c", new ByteArrayOutputStream(), producer);
+
+		assertEquals(200, cache.getSize());
+		assertTrue(new File(directory, "a.pdf").exists());
+		assertFalse(new File(directory, "b.pdf").exists());
+		assertTrue(new File(directory, "c.pdf").exists());
+	}
+
+	@Test
+	void testMissIsCopiedBeforePublishing() throws IOException {
+		ResultCache cache = new ResultCache(directory, 1024);
+		File entry = new File(directory, "key.pdf");
+		AtomicBoolean publishedDuringCopy = new AtomicBoolean();
+		ByteArrayOutputStream destination = new ByteArrayOutputStream() {
+			@Override
+			public synchronized void write(byte[] b, int off, int len) {
+				// Once published, a concurrent eviction could delete the entry before it is copied
+				publishedDuringCopy.compareAndSet(false, entry.exists());
+				super.write(b, off, len);
+			}
+		};
+
+		assertFalse(cache.fetch("key", destination, result -> Files.write(result.toPath(), new byte[] { 42 })));
+
+		assertFalse(publishedDuringCopy.get());
+		assertArrayEquals(new byte[] { 42 }, destination.toByteArray());
+		assertTrue(entry.exists());
+		assertEquals(1, cache.getSize());
+	}
+
+	@Test
+	void testFailedProducerLeavesNothingBehind() throws IOException {
+		ResultCache cache = new ResultCache(directory, 1024);
+
+		try {
+			cache.fetch("key", new ByteArrayOutputStream(), result -> {
+				Files.write(result.toPath(), new byte[] { 1 });
+				throw new IOException("Broken");
+			});
+		} catch (IOException e) {
+			assertEquals("Broken", e.getMessage());
+		}
+
+		assertEquals(0, directory.list().length);
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	void testFailedProducerLeavesDestinationUntouched() throws IOException {
+		ResultCache cache = new ResultCache(directory, 1024);
+		File destination = File.createTempFile("result-", ".pdf");
+		destination.deleteOnExit();
+		Files.write(destination.toPath(), new byte[] { 7 });
+
+		assertThrows(IOException.class, () -> cache.fetch("key", destination, result -> {
+			throw new IOException("Broken");
+		}));
+		assertArrayEquals(new byte[] { 7 }, Files.readAllBytes(destination.toPath()));
+
+		assertFalse(cache.fetch("key", destination, result -> Files.write(result.toPath(), new byte[] { 42 })));
+		assertArrayEquals(new byte[] { 42 }, Files.readAllBytes(destination.toPath()));
+	}
+
+	@Test
+	void testStaleTemporaryFilesAreSwept() throws IOException {
+		File stale = new File(directory, "stale.tmp");
+		File fresh = new File(directory, "fresh.tmp");
+		Files.write(stale.toPath(), new byte[] { 1 });
+		Files.write(fresh.toPath(), new byte[] { 1 });
+		Files.setLastModifiedTime(stale.toPath(), FileTime.fromMillis(System.currentTimeMillis() - 25L * 60 * 60 * 1000));
+
+		ResultCache cache = new ResultCache(directory, 1024);
+
+		assertFalse(stale.exists());
+		// Perhaps still being written by another process
+		assertTrue(fresh.exists());
+		assertEquals(0, cache.getSize());
+	}
+}
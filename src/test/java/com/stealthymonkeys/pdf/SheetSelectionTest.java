@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class SheetSelectionTest {
+	private final Set<Integer> sourcePagesRead = new TreeSet<>();
+
+	private FourUpBookletStrategy createStrategy(int pageCount, File outFile) throws IOException {
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(
+		    new PdfDocument(new PdfReader(SyntheticPdf.create(pageCount))), new PdfDocument(new PdfWriter(outFile))) {
+			@Override
+			protected PdfPage getSourcePage(int number) {
+				sourcePagesRead.add(number);
+				return super.getSourcePage(number);
+			}
+		};
+		strategy.disableInstructions();
+		return strategy;
+	}
+
+	private static Set<Integer> pagesInSlots(PageNumberSequence pages, int first, int end) {
+		Set<Integer> result = new TreeSet<>();
+		for (int slot = first; slot < end; slot++) {
+			result.add(pages.pageAt(slot));
+		}
+		return result;
+	}
+
+	@Test
+	void testReadsOnlySelectedSheets() throws IOException {
+		File outFile = SyntheticPdf.createOutput();
+		FourUpBookletStrategy strategy = createStrategy(64, outFile);
+		strategy.selectSheets(3, 4);
+		strategy.impose();
+
+		// Sheets 3 and 4 are output pages 5 to 8, four slots to a page
+		assertEquals(pagesInSlots(new BookletPageNumberCollection(64), 16, 32), sourcePagesRead);
+
+		PdfDocument result = new PdfDocument(new PdfReader(outFile));
+		assertEquals(4, result.getNumberOfPages());
+		result.close();
+	}
+
+	@Test
+	void testDownsamplingReadsOnlySelectedSheets() throws IOException {
+		FourUpBookletStrategy strategy = createStrategy(64, SyntheticPdf.createOutput());
+		ImageDownsampler downsampler = new ImageDownsampler(16);
+		strategy.setImageDownsampler(downsampler);
+		strategy.selectSheets(3, 4);
+		strategy.impose();
+
+		// Looking for each image's largest placement stays within the selected sheets too
+		assertEquals(pagesInSlots(new BookletPageNumberCollection(64), 16, 32), sourcePagesRead);
+		assertEquals(16, downsampler.getImagesResampled());
+	}
+
+	@Test
+	void testSingleSide() throws IOException {
+		File outFile = SyntheticPdf.createOutput();
+		FourUpBookletStrategy strategy = createStrategy(64, outFile);
+		strategy.selectOutputPages(6, 6);
+		strategy.impose();
+
+		assertEquals(pagesInSlots(new BookletPageNumberCollection(64), 20, 24), sourcePagesRead);
+
+		PdfDocument result = new PdfDocument(new PdfReader(outFile));
+		assertEquals(1, result.getNumberOfPages());
+		result.close();
+	}
+
+	@Test
+	void testParseSheets() {
+		assertArrayEquals(new int[] { 285, 286 }, BookletBuilder.parseSheets("143"));
+		assertArrayEquals(new int[] { 279, 300 }, BookletBuilder.parseSheets("140-150"));
+		assertArrayEquals(new int[] { 286, 286 }, BookletBuilder.parseSheets("143b"));
+		assertArrayEquals(new int[] { 285, 285 }, BookletBuilder.parseSheets("143f"));
+		assertArrayEquals(new int[] { 280, 299 }, BookletBuilder.parseSheets("140b-150f"));
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class SignaturePageNumberCollectionTest {
+	@ParameterizedTest
+	@MethodSource("pageLayoutProvider")
+	void testPageAt(int pageCount, int sheets, int pages[]) {
+		SignaturePageNumberCollection collection = new SignaturePageNumberCollection(pageCount, sheets);
+		assertEquals(pages.length, collection.size());
+		// Walk backwards, to make sure no slot depends on the ones before it
+		for (int i = pages.length - 1; i >= 0; i--) {
+			assertEquals(pages[i], collection.pageAt(i));
+		}
+	}
+
+	@Test
+	void testSingleSignature() {
+		SignaturePageNumberCollection signatures = new SignaturePageNumberCollection(39, 5);
+		BookletPageNumberCollection booklet = new BookletPageNumberCollection(39);
+
+		assertEquals(1, signatures.getSignatureCount());
+		assertEquals(booklet.size(), signatures.size());
+		for (int i = 0; i < booklet.size(); i++) {
+			assertEquals(booklet.pageAt(i), signatures.pageAt(i));
+		}
+	}
+
+	@Test
+	void testInvalidSheets() {
+		assertThrows(IllegalArgumentException.class, () -> new SignaturePageNumberCollection(16, 0));
+	}
+
+	static Stream<Arguments> pageLayoutProvider() {
+		return Stream.of(
+		// @formatter:off
+			Arguments.of(16, 1, new int[] {
+				 8,  1,
+				 6,  3,
+
+				 2,  7,
+				 4,  5,
+
+				16,  9,
+				14, 11,
+
+				10, 15,
+				12, 13
+			}),
+			// The last signature is only padded to the nearest sheet
+			Arguments.of(20, 1, new int[] {
+				  8,   1,
+				  6,   3,
+
+				  2,   7,
+				  4,   5,
+
+				 16,   9,
+				 14,  11,
+
+				 10,  15,
+				 12,  13,
+
+				-24,  17,
+				-22,  19,
+
+				 18, -23,
+				 20, -21
+			})
+		// @formatter:on
+		);
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class StreamDeduplicatorTest {
+	private static final int PAGE_COUNT = 16;
+
+	@Test
+	void testMergesRepeatedImages() throws IOException {
+		File inFile = SyntheticPdf.createRepeatedImage(PAGE_COUNT);
+		File full = impose(inFile, false, null);
+
+		File outFile = SyntheticPdf.createOutput();
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(inFile, outFile);
+		StreamDeduplicator deduplicator = new StreamDeduplicator(strategy.getResult());
+		impose(strategy, false, deduplicator);
+
+		assertEquals(PAGE_COUNT - 1, deduplicator.getStreamsMerged());
+		assertTrue(deduplicator.getBytesSaved() > 0);
+		assertTrue(outFile.length() < full.length(),
+		    "Deduplicated output is " + outFile.length() + " bytes, original is " + full.length());
+
+		// Every copied page now draws the same image object
+		PdfDocument result = new PdfDocument(new PdfReader(outFile));
+		PdfDictionary forms = result.getPage(1).getResources().getResource(PdfName.XObject);
+		Object image = null;
+		for (PdfName name : forms.keySet()) {
+			PdfDictionary images = forms.getAsStream(name).getAsDictionary(PdfName.Resources)
+			    .getAsDictionary(PdfName.XObject);
+			for (PdfName imageName : images.keySet()) {
+				Object reference = images.get(imageName, false);
+				if (image == null)
+					image = reference;
+				assertEquals(image, reference);
+			}
+		}
+		result.close();
+	}
+
+	@Test
+	void testMergesAcrossStreamedPages() throws IOException {
+		File inFile = SyntheticPdf.createRepeatedImage(PAGE_COUNT);
+		File full = impose(inFile, true, null);
+
+		File outFile = SyntheticPdf.createOutput();
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(inFile, outFile);
+		StreamDeduplicator deduplicator = new StreamDeduplicator(strategy.getResult());
+		impose(strategy, true, deduplicator);
+
+		assertEquals(PAGE_COUNT - 1, deduplicator.getStreamsMerged());
+		assertTrue(outFile.length() < full.length());
+
+		PdfDocument result = new PdfDocument(new PdfReader(outFile));
+		assertEquals(PAGE_COUNT / 4, result.getNumberOfPages());
+		result.close();
+	}
+
+	@Test
+	void testLeavesDistinctStreamsAlone() throws IOException {
+		File outFile = SyntheticPdf.createOutput();
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(SyntheticPdf.create(PAGE_COUNT), outFile);
+		StreamDeduplicator deduplicator = new StreamDeduplicator(strategy.getResult());
+		impose(strategy, false, deduplicator);
+
+		assertEquals(0, deduplicator.getStreamsMerged());
+		assertEquals(0, deduplicator.getBytesSaved());
+	}
+
+	private File impose(File inFile, boolean streaming, StreamDeduplicator deduplicator) throws IOException {
+		File outFile = SyntheticPdf.createOutput();
+		impose(new FourUpBookletStrategy(inFile, outFile), streaming, deduplicator);
+		return outFile;
+	}
+
+	private void impose(FourUpBookletStrategy strategy, boolean streaming, StreamDeduplicator deduplicator)
+	    throws IOException {
+		strategy.disableInstructions();
+		if (streaming)
+			strategy.enableStreaming();
+		strategy.setStreamDeduplicator(deduplicator);
+		strategy.impose();
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class StreamingImpositionTest {
+	// Every synthetic page carries ~12KiB of image data, so an extra 896 pages held in memory would be ~10MiB.
+	private static final long ALLOWED_GROWTH = 4L * 1024 * 1024;
+
+	@Test
+	void testPeakHeapIsFlat() throws IOException {
+		long small = peakHeapDuringImposition(128);
+		long large = peakHeapDuringImposition(1024);
+
+		assertTrue(large - small < ALLOWED_GROWTH,
+		    "Peak heap grew from " + small + " to " + large + " bytes with 8x the pages");
+	}
+
+	@Test
+	void testStreamingOutputIsComplete() throws IOException {
+		File inFile = SyntheticPdf.create(40);
+		File outFile = SyntheticPdf.createOutput();
+
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(inFile, outFile);
+		strategy.disableInstructions();
+		strategy.enableStreaming();
+		strategy.impose();
+
+		PdfDocument result = new PdfDocument(new PdfReader(outFile));
+		assertEquals(10, result.getNumberOfPages());
+		result.close();
+	}
+
+	@Test
+	void testReleasedPagesLeaveThePageTree() throws IOException {
+		PdfDocument source = new PdfDocument(new PdfReader(SyntheticPdf.create(16)));
+		AtomicInteger released = new AtomicInteger();
+		AtomicInteger retained = new AtomicInteger();
+
+		FourUpBookletStrategy strategy = new FourUpBookletStrategy(source,
+		    new PdfDocument(new PdfWriter(SyntheticPdf.createOutput()))) {
+			@Override
+			protected void releaseSourcePage(int number) {
+				PdfPage page = getSourcePage(number);
+				super.releaseSourcePage(number);
+				released.incrementAndGet();
+				// A page still held by the page tree would be handed back again, instead of being read anew
+				if (getSourcePage(number) == page)
+					retained.incrementAndGet();
+			}
+		};
+		strategy.disableInstructions();
+		strategy.enableStreaming();
+		strategy.impose();
+
+		assertEquals(16, released.get());
+		assertEquals(0, retained.get());
+	}
+
+	private long peakHeapDuringImposition(int pageCount) throws IOException {
+		File inFile = SyntheticPdf.create(pageCount);
+		File outFile = SyntheticPdf.createOutput();
+
+		HeapSamplingStrategy strategy = new HeapSamplingStrategy(inFile, outFile);
+		strategy.disableInstructions();
+		strategy.enableStreaming();
+		strategy.impose();
+
+		return strategy.peak - strategy.baseline;
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	class HeapSamplingStrategy extends FourUpBookletStrategy {
+		private long	baseline	= usedHeap();
+		private long	peak			= baseline;
+		private int		pages			= 0;
+
+		public HeapSamplingStrategy(File inFile, File outFile) throws IOException {
+			super(inFile, outFile);
+		}
+
+		@Override
+		protected PdfPage addNewPage(PageSize size) {
+			if (++pages % 16 == 0)
+				peak = Math.max(peak, usedHeap());
+			return super.addNewPage(size);
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfResources;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+
+/**
+ * Generates throw-away source PDFs for tests. Every page carries its own small, incompressible image and a rectangle
+ * whose position encodes the page number, so that every page is distinguishable. Unless stated otherwise, none of them
+ * share resources.
+ *
+ * @author Erik Ogan
+ *
+ */
+class SyntheticPdf {
+	static final int IMAGE_SIZE = 64;
+
+	static File create(int pageCount) throws IOException {
+		File file = File.createTempFile("synthetic-", ".pdf");
+		file.deleteOnExit();
+
+		PdfDocument doc = new PdfDocument(new PdfWriter(file));
+		Random random = new Random(pageCount);
+
+		for (int i = 1; i <= pageCount; i++) {
+			PdfPage page = doc.addNewPage(PageSize.LETTER);
+			PdfCanvas canvas = new PdfCanvas(page);
+
+			canvas.addXObjectWithTransformationMatrix(createImage(random), 144, 0, 0, 144, 72, 72);
+			canvas.rectangle(i, i, 10, 10).fill();
+			canvas.release();
+			page.flush(true);
+		}
+
+		doc.close();
+		return file;
+	}
+
+	/**
+	 * Creates a document whose pages all share one resource dictionary holding every page's image, as exported by some
+	 * layout programs. Each page only draws its own image.
+	 */
+	static File createSharedResources(int pageCount) throws IOException {
+		File file = File.createTempFile("synthetic-", ".pdf");
+		file.deleteOnExit();
+
+		writeSharedResources(new PdfDocument(new PdfWriter(file)), pageCount);
+		return file;
+	}
+
+	/**
+	 * Creates a document where every page embeds its own copy of the same image, as a mail merge would.
+	 */
+	static File createRepeatedImage(int pageCount) throws IOException {
+		File file = File.createTempFile("synthetic-", ".pdf");
+		file.deleteOnExit();
+
+		PdfDocument doc = new PdfDocument(new PdfWriter(file));
+
+		for (int i = 1; i <= pageCount; i++) {
+			PdfPage page = doc.addNewPage(PageSize.LETTER);
+			PdfCanvas canvas = new PdfCanvas(page);
+
+			// Same seed, so the same pixels, but a new image object every time
+			canvas.addXObjectWithTransformationMatrix(createImage(new Random(0)), 144, 0, 0, 144, 72, 72);
+			canvas.rectangle(i, i, 10, 10).fill();
+			canvas.release();
+			page.flush(true);
+		}
+
+		doc.close();
+		return file;
+	}
+
+	static File createOutput() throws IOException {
+		File file = File.createTempFile("synthetic-", "-booklet.pdf");
+		file.deleteOnExit();
+		return file;
+	}
+
+	/**
+	 * Reads back an imposed document: the content of each output page, followed by the content of each page imposed on
+	 * it. Documents imposed the same way compare equal, whatever their IDs and timestamps.
+	 */
+	static List<byte[]> imposedContent(File file) throws IOException {
+		List<byte[]> content = new ArrayList<>();
+		PdfDocument doc = new PdfDocument(new PdfReader(file));
+
+		for (int i = 1; i <= doc.getNumberOfPages(); i++) {
+			PdfPage page = doc.getPage(i);
+			content.add(page.getContentBytes());
+
+			PdfDictionary xObjects = page.getResources().getResource(PdfName.XObject);
+			for (PdfName name : new TreeSet<>(xObjects.keySet())) {
+				PdfStream form = xObjects.getAsStream(name);
+				content.add(form.getBytes());
+			}
+		}
+
+		doc.close();
+		return content;
+	}
+
+	private static void writeSharedResources(PdfDocument doc, int pageCount) {
+		Random random = new Random(pageCount);
+		PdfResources resources = new PdfResources();
+		resources.makeIndirect(doc);
+
+		for (int i = 1; i <= pageCount; i++) {
+			PdfPage page = doc.addNewPage(PageSize.LETTER);
+			page.getPdfObject().put(PdfName.Resources, resources.getPdfObject());
+			PdfCanvas canvas = new PdfCanvas(page.newContentStreamAfter(), resources, doc);
+
+			canvas.addXObjectWithTransformationMatrix(createImage(random), 144, 0, 0, 144, 72, 72);
+			canvas.release();
+		}
+
+		// Pages can't be flushed early, since the shared resources keep growing
+		doc.close();
+	}
+
+	private static PdfImageXObject createImage(Random random) {
+		byte[] pixels = new byte[IMAGE_SIZE * IMAGE_SIZE * 3];
+		random.nextBytes(pixels);
+
+		PdfStream stream = new PdfStream(pixels);
+		stream.put(PdfName.Type, PdfName.XObject);
+		stream.put(PdfName.Subtype, PdfName.Image);
+		stream.put(PdfName.Width, new PdfNumber(IMAGE_SIZE));
+		stream.put(PdfName.Height, new PdfNumber(IMAGE_SIZE));
+		stream.put(PdfName.ColorSpace, PdfName.DeviceRGB);
+		stream.put(PdfName.BitsPerComponent, new PdfNumber(8));
+
+		return new PdfImageXObject(stream);
+	}
+}
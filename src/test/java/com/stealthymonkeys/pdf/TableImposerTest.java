@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2018 Stealthy Monkeys Consulting, some rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Affero General Public License version 3 as published by the
+ * Free Software Foundation: https://www.gnu.org/licenses/agpl-3.0.en.html
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Affero General Public License for more
+ * details.
+ */
+package com.stealthymonkeys.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Point;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * @author Erik Ogan
+ *
+ */
+class TableImposerTest {
+	private static final Rectangle PAGE_SIZE = PageSize.LETTER;
+
+	@Test
+	void testFourUpMatchesFourUpImposer() {
+		TableImposer table = TableImposer.forSlots(PAGE_SIZE, 4);
+		FourUpImposer fourUp = new FourUpImposer(PAGE_SIZE);
+
+		assertEquals(0.5, table.getScale());
+		assertEquals(fourUp.getSlotCount(), table.getSlotCount());
+		for (int i = 0; i < table.getSlotCount(); i++) {
+			assertEquals(fourUp.getPosition(i).getX(), table.getPosition(i).getX(), 1e-9);
+			assertEquals(fourUp.getPosition(i).getY(), table.getPosition(i).getY(), 1e-9);
+			assertEquals(0, table.getRotation(i));
+		}
+	}
+
+	@Test
+	void testPositionsCannotBeModified() {
+		TableImposer imposer = TableImposer.forSlots(PAGE_SIZE, 16);
+		double x = imposer.getX(5), y = imposer.getY(5);
+
+		imposer.getPosition(5).setLocation(-1, -1);
+		imposer.iterator().next().setLocation(-1, -1);
+
+		assertEquals(x, imposer.getX(5));
+		assertEquals(y, imposer.getY(5));
+		assertEquals(x, imposer.getPosition(5).getX());
+		assertEquals(y, imposer.getPosition(5).getY());
+		assertNotEquals(-1, imposer.getX(0));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 4, 8, 16 })
+	void testPagesFitOnTheSheet(int slots) {
+		TableImposer imposer = TableImposer.forSlots(PAGE_SIZE, slots);
+		double scale = imposer.getScale();
+
+		assertEquals(slots, imposer.getSlotCount());
+		for (int i = 0; i < slots; i++) {
+			Point position = imposer.getPosition(i);
+			boolean quarterTurn = imposer.getRotation(i) % 180 != 0;
+			double width = scale * (quarterTurn ? PAGE_SIZE.getHeight() : PAGE_SIZE.getWidth());
+			double height = scale * (quarterTurn ? PAGE_SIZE.getWidth() : PAGE_SIZE.getHeight());
+
+			assertTrue(scale * position.getX() >= -1e-6 && scale * position.getX() + width <= PAGE_SIZE.getWidth() + 1e-6,
+			    "Slot " + i + " is off the sheet horizontally");
+			assertTrue(scale * position.getY() >= -1e-6 && scale * position.getY() + height <= PAGE_SIZE.getHeight() + 1e-6,
+			    "Slot " + i + " is off the sheet vertically");
+		}
+	}
+
+	@Test
+	void testRotatedReadingOrder() {
+		TableImposer imposer = TableImposer.forSlots(PAGE_SIZE, 2);
+
+		// Turning the sheet counter-clockwise brings its top edge to the left, so the first page is at the top
+		assertEquals(270, imposer.getRotation(0));
+		assertTrue(imposer.getPosition(0).getY() > imposer.getPosition(1).getY());
+	}
+
+	@Test
+	void testUnsupportedSlots() {
+		assertThrows(IllegalArgumentException.class, () -> TableImposer.forSlots(PAGE_SIZE, 6));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 8, 16 })
+	void testImpose(int slots) throws IOException {
+		File outFile = SyntheticPdf.createOutput();
+		NupBookletStrategy strategy = new NupBookletStrategy(new PdfDocument(new PdfReader(SyntheticPdf.create(20))),
+		    new PdfDocument(new PdfWriter(outFile)), slots);
+		strategy.impose();
+
+		PdfDocument result = new PdfDocument(new PdfReader(outFile));
+		assertEquals(new NupBookletPageNumberCollection(20, slots).size() / slots, result.getNumberOfPages());
+		result.close();
+	}
+}